@@ -0,0 +1,42 @@
+package answer.king.benchmark;
+
+import java.math.BigDecimal;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import answer.king.Application;
+import answer.king.model.Item;
+import answer.king.model.Money;
+import answer.king.service.InvalidItemException;
+import answer.king.service.ItemService;
+
+/**
+ * Starts the application, by default against its in-memory H2 datasource,
+ * for benchmarks that exercise the services end to end.
+ */
+final class BenchmarkApplication {
+
+	private BenchmarkApplication() {
+	}
+
+	static ConfigurableApplicationContext start(String... properties) {
+		return new SpringApplicationBuilder(Application.class)
+			.bannerMode(Banner.Mode.OFF)
+			.properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN")
+			.properties(properties)
+			.run();
+	}
+
+	static Long[] createItems(ItemService itemService, int count) throws InvalidItemException {
+		Long[] itemIds = new Long[count];
+		for (int i = 0; i < count; i++) {
+			Item item = new Item();
+			item.setName("item" + i);
+			item.setPrice(Money.of(new BigDecimal("1.99")));
+			itemIds[i] = itemService.save(item).getId();
+		}
+		return itemIds;
+	}
+}
@@ -0,0 +1,98 @@
+package answer.king.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StreamUtils;
+
+import answer.king.model.Order;
+import answer.king.service.InvalidItemException;
+import answer.king.service.ItemService;
+import answer.king.service.OrderService;
+
+/**
+ * Concurrent HTTP clients adding items to their own orders, with requests run
+ * on the container thread and then on the async executor. Tomcat is held to
+ * sixteen threads so that the clients outnumber them; pass -t to jmh.args to
+ * change the number of clients.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ExecutionModeBenchmark {
+
+	private static final int ITEMS = 20;
+
+	@Param({ "false", "true" })
+	private boolean async;
+
+	private ConfigurableApplicationContext context;
+
+	private OrderService orderService;
+
+	private String baseUrl;
+
+	private Long[] itemIds;
+
+	@State(Scope.Thread)
+	public static class Client {
+
+		private Long orderId;
+
+		@Setup(Level.Iteration)
+		public void createOrder(ExecutionModeBenchmark benchmark) {
+			orderId = benchmark.orderService.save(new Order()).getId();
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidItemException {
+		context = BenchmarkApplication.start("answer.king.async.enabled=" + async, "server.tomcat.max-threads=16");
+		orderService = context.getBean(OrderService.class);
+		itemIds = BenchmarkApplication.createItems(context.getBean(ItemService.class), ITEMS);
+		baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int addItem(Client client) throws IOException {
+		Long itemId = itemIds[ThreadLocalRandom.current().nextInt(ITEMS)];
+		HttpURLConnection connection = (HttpURLConnection) new URL(
+				baseUrl + "/order/" + client.orderId + "/addItem/" + itemId).openConnection();
+		connection.setRequestMethod("PUT");
+		int status = connection.getResponseCode();
+		try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			if (body != null) {
+				StreamUtils.drain(body);
+			}
+		}
+		return status;
+	}
+}
@@ -0,0 +1,97 @@
+package answer.king.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import answer.king.model.LineItem;
+import answer.king.model.Money;
+import answer.king.model.Order;
+import answer.king.model.Receipt;
+import answer.king.model.ReceiptLine;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ModelBenchmark {
+
+	@Param({ "1", "10", "100" })
+	private int lineItems;
+
+	private ObjectMapper objectMapper;
+
+	private Order order;
+
+	private Receipt receipt;
+
+	@Setup
+	public void setUp() {
+		objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+		order = new Order();
+		order.setId(1L);
+		List<LineItem> items = new ArrayList<>(lineItems);
+		long total = 0;
+		for (int i = 0; i < lineItems; i++) {
+			LineItem lineItem = new LineItem();
+			lineItem.setId((long) i);
+			lineItem.setName("item" + i);
+			lineItem.setPrice(Money.of(new BigDecimal("1.99")));
+			lineItem.setQuantity(2);
+			lineItem.setOrder(order);
+			items.add(lineItem);
+			total += lineItem.getPrice().getMinorUnits() * lineItem.getQuantity();
+		}
+		order.setLineItems(items);
+		order.setTotal(total);
+
+		Money payment = Money.of(new BigDecimal("500.00"));
+		Money orderTotal = Money.ofMinorUnits(total);
+		List<ReceiptLine> receiptLines = new ArrayList<>(lineItems);
+		for (LineItem lineItem : items) {
+			ReceiptLine receiptLine = new ReceiptLine();
+			receiptLine.setName(lineItem.getName());
+			receiptLine.setPrice(lineItem.getPrice());
+			receiptLine.setQuantity(lineItem.getQuantity());
+			receiptLines.add(receiptLine);
+		}
+
+		receipt = new Receipt();
+		receipt.setId(1L);
+		receipt.setOrderId(order.getId());
+		receipt.setPayment(payment);
+		receipt.setTotal(orderTotal);
+		receipt.setChange(payment.minus(orderTotal));
+		receipt.setLineItems(receiptLines);
+	}
+
+	@Benchmark
+	public byte[] serialiseOrder() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(order);
+	}
+
+	@Benchmark
+	public byte[] serialiseReceipt() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(receipt);
+	}
+}
@@ -0,0 +1,77 @@
+package answer.king.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import answer.king.model.Money;
+
+/**
+ * Totals an order and checks a payment against it, once with BigDecimal
+ * amounts and once with {@link Money}. Run with {@code -prof gc} to compare
+ * the allocation rates as well as the times.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneyBenchmark {
+
+	@Param({ "1", "10", "100" })
+	private int lineItems;
+
+	private BigDecimal[] decimalPrices;
+
+	private Money[] moneyPrices;
+
+	private int[] quantities;
+
+	private BigDecimal decimalPayment;
+
+	private Money moneyPayment;
+
+	@Setup
+	public void setUp() {
+		decimalPrices = new BigDecimal[lineItems];
+		moneyPrices = new Money[lineItems];
+		quantities = new int[lineItems];
+		for (int i = 0; i < lineItems; i++) {
+			decimalPrices[i] = new BigDecimal("1.99").add(BigDecimal.valueOf(i, 2));
+			moneyPrices[i] = Money.of(decimalPrices[i]);
+			quantities[i] = 1 + i % 3;
+		}
+		decimalPayment = new BigDecimal("1000.00");
+		moneyPayment = Money.of(decimalPayment);
+	}
+
+	@Benchmark
+	public boolean bigDecimalTotalAndPaymentCheck() {
+		BigDecimal total = BigDecimal.ZERO;
+		for (int i = 0; i < lineItems; i++) {
+			total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+		}
+		return decimalPayment.compareTo(total) >= 0;
+	}
+
+	@Benchmark
+	public boolean moneyTotalAndPaymentCheck() {
+		long total = 0;
+		for (int i = 0; i < lineItems; i++) {
+			total += moneyPrices[i].getMinorUnits() * quantities[i];
+		}
+		return !moneyPayment.isLessThan(total);
+	}
+}
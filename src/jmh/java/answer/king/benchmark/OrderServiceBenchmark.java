@@ -0,0 +1,69 @@
+package answer.king.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import answer.king.model.Order;
+import answer.king.service.InvalidItemException;
+import answer.king.service.ItemService;
+import answer.king.service.OrderAlreadyPaidException;
+import answer.king.service.OrderNotFoundException;
+import answer.king.service.OrderService;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderServiceBenchmark {
+
+	@Param({ "1", "10", "100" })
+	private int lineItems;
+
+	private ConfigurableApplicationContext context;
+
+	private OrderService orderService;
+
+	private Long orderId;
+
+	private Long[] itemIds;
+
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
+		context = BenchmarkApplication.start();
+		orderService = context.getBean(OrderService.class);
+		itemIds = BenchmarkApplication.createItems(context.getBean(ItemService.class), lineItems);
+
+		orderId = orderService.save(new Order()).getId();
+		for (Long itemId : itemIds) {
+			orderService.addItem(orderId, itemId, 1);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public void addItem() throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
+		orderService.addItem(orderId, itemIds[next++ % itemIds.length], 1);
+	}
+}
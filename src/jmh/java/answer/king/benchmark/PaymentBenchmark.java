@@ -0,0 +1,75 @@
+package answer.king.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import answer.king.model.Money;
+import answer.king.model.Order;
+import answer.king.model.Receipt;
+import answer.king.service.InsufficientPaymentException;
+import answer.king.service.InvalidItemException;
+import answer.king.service.ItemService;
+import answer.king.service.OrderAlreadyPaidException;
+import answer.king.service.OrderNotFoundException;
+import answer.king.service.OrderService;
+import answer.king.service.PaymentBacklogException;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentBenchmark {
+
+	private static final Money PAYMENT = Money.of(new BigDecimal("100.00"));
+
+	private static final int LINE_ITEMS = 3;
+
+	private ConfigurableApplicationContext context;
+
+	private OrderService orderService;
+
+	private Long[] itemIds;
+
+	private Long orderId;
+
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidItemException {
+		context = BenchmarkApplication.start();
+		orderService = context.getBean(OrderService.class);
+		itemIds = BenchmarkApplication.createItems(context.getBean(ItemService.class), LINE_ITEMS);
+	}
+
+	@Setup(Level.Invocation)
+	public void createOrder() throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
+		orderId = orderService.save(new Order()).getId();
+		for (Long itemId : itemIds) {
+			orderService.addItem(orderId, itemId, 1);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public Receipt pay() throws InsufficientPaymentException, OrderAlreadyPaidException, PaymentBacklogException {
+		return orderService.pay(orderId, PAYMENT);
+	}
+}
@@ -0,0 +1,95 @@
+package answer.king.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import answer.king.model.Money;
+import answer.king.model.Order;
+import answer.king.model.Receipt;
+import answer.king.service.InsufficientPaymentException;
+import answer.king.service.InvalidItemException;
+import answer.king.service.ItemService;
+import answer.king.service.OrderAlreadyPaidException;
+import answer.king.service.OrderNotFoundException;
+import answer.king.service.OrderService;
+import answer.king.service.PaymentBacklogException;
+
+/**
+ * Till traffic against the file-backed database: sixteen threads each create
+ * an order, add two items and pay. Comparing the scores across pool sizes
+ * shows where extra connections stop buying throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class PoolSizeBenchmark {
+
+	private static final Money PAYMENT = Money.of(new BigDecimal("100.00"));
+
+	private static final int ITEMS = 20;
+
+	@Param({ "2", "4", "8", "16" })
+	private int poolSize;
+
+	private File dataDir;
+
+	private ConfigurableApplicationContext context;
+
+	private OrderService orderService;
+
+	private Long[] itemIds;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException, InvalidItemException {
+		dataDir = Files.createTempDirectory("answer-king").toFile();
+		context = BenchmarkApplication.start(
+			"spring.profiles.active=persistent",
+			"answer.king.data-dir=" + dataDir.getAbsolutePath(),
+			"spring.datasource.hikari.maximum-pool-size=" + poolSize,
+			"spring.datasource.hikari.minimum-idle=" + poolSize,
+			"spring.datasource.hikari.connection-timeout=30000");
+		orderService = context.getBean(OrderService.class);
+		itemIds = BenchmarkApplication.createItems(context.getBean(ItemService.class), ITEMS);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+		FileSystemUtils.deleteRecursively(dataDir);
+	}
+
+	@Benchmark
+	public Receipt tillOrder() throws InsufficientPaymentException, InvalidItemException, OrderAlreadyPaidException,
+			OrderNotFoundException, PaymentBacklogException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Long orderId = orderService.save(new Order()).getId();
+		orderService.addItem(orderId, itemIds[random.nextInt(ITEMS)], 1);
+		orderService.addItem(orderId, itemIds[random.nextInt(ITEMS)], 2);
+		return orderService.pay(orderId, PAYMENT);
+	}
+}
@@ -1,5 +1,7 @@
 package answer.king;
 
+import java.math.BigDecimal;
+
 import com.google.common.base.Predicate;
 import org.h2.server.web.WebServlet;
 import org.springframework.boot.SpringApplication;
@@ -7,17 +9,21 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.web.servlet.ServletRegistrationBean;
 import org.springframework.boot.web.support.SpringBootServletInitializer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import answer.king.model.Money;
+
 import static com.google.common.base.Predicates.or;
 import static springfox.documentation.builders.PathSelectors.regex;
 
 @EnableSwagger2
 @SpringBootApplication
 @EnableTransactionManagement
+@EnableScheduling
 public class Application extends SpringBootServletInitializer {
 
 	public static void main(String[] args) {
@@ -31,8 +37,10 @@ public class Application extends SpringBootServletInitializer {
 
 	@Bean
 	public Docket swaggerSpringMvcPlugin() {
-		Predicate<String> apiPaths = or(regex("/order.*"), regex("/item.*"));
+		Predicate<String> apiPaths = or(or(regex("/order.*"), regex("/item.*")),
+				or(regex("/receipt.*"), regex("/statistics.*")));
 		return new Docket(DocumentationType.SWAGGER_2)
+			.directModelSubstitute(Money.class, BigDecimal.class)
 			.select()
 			.paths(apiPaths)
 			.build();
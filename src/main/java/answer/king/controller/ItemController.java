@@ -1,22 +1,40 @@
 package answer.king.controller;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import answer.king.metrics.QueryBudget;
 import answer.king.model.Item;
+import answer.king.model.Money;
+import answer.king.model.PriceChange;
+import answer.king.service.ImportResult;
 import answer.king.service.InvalidItemException;
+import answer.king.service.ItemImporter;
+import answer.king.service.ItemNotFoundException;
 import answer.king.service.ItemService;
+import answer.king.service.Menu;
+import answer.king.service.MenuCache;
+import answer.king.service.RepriceResult;
+import answer.king.view.ItemView;
+import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
 
@@ -27,9 +45,29 @@ public class ItemController {
 	@Autowired
 	private ItemService itemService;
 
-	@RequestMapping(method = RequestMethod.GET)
-	public List<Item> getAll() {
-		return itemService.getAll();
+	@Autowired
+	private MenuCache menuCache;
+
+	@Autowired
+	private ItemImporter itemImporter;
+
+	/**
+	 * Writes the cached menu bytes as they are, gzip-compressed when the client
+	 * accepts that. A poll that sends back the current ETag gets a 304.
+	 */
+	@QueryBudget(1)
+	@RequestMapping(method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+	@ApiOperation(value = "getAll", response = ItemView.class, responseContainer = "List")
+	public ResponseEntity<byte[]> getAll(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		Menu menu = menuCache.getMenu();
+		BodyBuilder response = ResponseEntity.ok()
+			.cacheControl(CacheControl.noCache())
+			.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+			return response.eTag(menu.getGzipETag()).header(HttpHeaders.CONTENT_ENCODING, "gzip").body(menu.getGzip());
+		}
+		return response.eTag(menu.getETag()).body(menu.getJson());
 	}
 
 	@RequestMapping(method = RequestMethod.POST)
@@ -38,15 +76,48 @@ public class ItemController {
 		return itemService.save(item);
 	}
 
+	/**
+	 * Bulk import of a JSON array of items, streamed rather than bound as a
+	 * whole.
+	 */
+	@RequestMapping(value = "/import", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ImportResult importJson(InputStream body) throws IOException {
+		return itemImporter.importJson(body);
+	}
+
+	/**
+	 * Bulk import of a CSV file with a header row naming the name and price
+	 * columns.
+	 */
+	@RequestMapping(value = "/import", method = RequestMethod.POST, consumes = "text/csv")
+	public ImportResult importCsv(InputStream body) throws IOException {
+		return itemImporter.importCsv(body);
+	}
+
 	@RequestMapping(value = "/{id}/price", method = RequestMethod.PUT)
-	public Item updatePrice(@PathVariable("id") Long id, @RequestBody BigDecimal price) throws InvalidItemException {
+	@ApiResponses(value = { @ApiResponse(code = 404, message = "Item not found", response = Error.class) })
+	public Item updatePrice(@PathVariable("id") Long id, @RequestBody Money price)
+			throws InvalidItemException, ItemNotFoundException {
 		return itemService.updatePrice(id, price);
 	}
 
+	@RequestMapping(value = "/prices", method = RequestMethod.PUT)
+	@ApiResponses(value = { @ApiResponse(code = 400, message = "Invalid price", response = Error.class) })
+	public RepriceResult updatePrices(@RequestBody List<PriceChange> priceChanges) throws InvalidItemException {
+		return itemService.updatePrices(priceChanges);
+	}
+
 	@ResponseStatus(value = HttpStatus.BAD_REQUEST)
 	@ExceptionHandler(InvalidItemException.class)
 	@ResponseBody
 	public Error handleException(InvalidItemException e) {
 		return new Error(e.getMessage());
 	}
+
+	@ResponseStatus(value = HttpStatus.NOT_FOUND)
+	@ExceptionHandler(ItemNotFoundException.class)
+	@ResponseBody
+	public Error handleException(ItemNotFoundException e) {
+		return new Error(e.getMessage());
+	}
 }
\ No newline at end of file
@@ -1,56 +1,127 @@
 package answer.king.controller;
 
-import java.math.BigDecimal;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import answer.king.metrics.QueryBudget;
+import answer.king.model.BasketItem;
+import answer.king.model.Money;
 import answer.king.model.Order;
 import answer.king.model.Receipt;
+import answer.king.service.IdempotentPaymentService;
 import answer.king.service.InsufficientPaymentException;
+import answer.king.service.InvalidItemException;
+import answer.king.service.OrderAlreadyPaidException;
+import answer.king.service.OrderNotFoundException;
+import answer.king.service.OrderQueryService;
 import answer.king.service.OrderService;
+import answer.king.service.PaymentBacklogException;
+import answer.king.service.ReceiptService;
+import answer.king.view.OrderView;
+import answer.king.view.ReceiptView;
+import answer.king.web.AdmissionControl;
+import answer.king.web.AdmissionControl.Priority;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
 
 @RestController
 @RequestMapping("/order")
 public class OrderController {
 
+	private static final String PAYMENT_RETRY_AFTER_SECONDS = "1";
+
 	@Autowired
 	private OrderService orderService;
 
+	@Autowired
+	private OrderQueryService orderQueryService;
+
+	@Autowired
+	private IdempotentPaymentService idempotentPaymentService;
+
+	@Autowired
+	private ReceiptService receiptService;
+
+	@QueryBudget(2)
 	@RequestMapping(method = RequestMethod.GET)
-	public List<Order> getAll() {
-		return orderService.getAll();
+	public List<OrderView> getAll(@RequestParam(value = "after", required = false) Long after,
+			@RequestParam(value = "limit", required = false) Integer limit) {
+		return orderQueryService.getPage(after, limit);
 	}
 
+	@AdmissionControl(Priority.LOW)
+	@QueryBudget(2)
 	@RequestMapping(method = RequestMethod.POST)
 	public Order create() {
 		return orderService.save(new Order());
 	}
 
+	@AdmissionControl(Priority.NORMAL)
+	@QueryBudget(5)
 	@RequestMapping(value = "/{id}/addItem/{itemId}", method = RequestMethod.PUT)
-	public void addItem(@PathVariable("id") Long id, @PathVariable("itemId") Long itemId) {
+	@ApiResponses(value = { @ApiResponse(code = 400, message = "Invalid item", response = Error.class),
+			@ApiResponse(code = 404, message = "Order not found", response = Error.class),
+			@ApiResponse(code = 409, message = "Order already paid", response = Error.class) })
+	public void addItem(@PathVariable("id") Long id, @PathVariable("itemId") Long itemId)
+			throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
 		orderService.addItem(id, itemId, 1);
 	}
 
+	@AdmissionControl(Priority.NORMAL)
+	@QueryBudget(5)
 	@RequestMapping(value = "/{id}/addItem/{itemId}/quantity/{quantity}", method = RequestMethod.PUT)
+	@ApiResponses(value = { @ApiResponse(code = 400, message = "Invalid item", response = Error.class),
+			@ApiResponse(code = 404, message = "Order not found", response = Error.class),
+			@ApiResponse(code = 409, message = "Order already paid", response = Error.class) })
 	public void addItem(@PathVariable("id") Long id, @PathVariable("itemId") Long itemId,
-			@PathVariable("quantity") Integer quantity) {
+			@PathVariable("quantity") Integer quantity)
+			throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
 		orderService.addItem(id, itemId, quantity);
 	}
 
+	@AdmissionControl(Priority.NORMAL)
+	@QueryBudget(8)
+	@RequestMapping(value = "/{id}/addItems", method = RequestMethod.PUT)
+	@ApiResponses(value = { @ApiResponse(code = 400, message = "Invalid item", response = Error.class),
+			@ApiResponse(code = 404, message = "Order not found", response = Error.class),
+			@ApiResponse(code = 409, message = "Order already paid", response = Error.class) })
+	public void addItems(@PathVariable("id") Long id, @RequestBody List<BasketItem> basket)
+			throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
+		orderService.addItems(id, basket);
+	}
+
+	@AdmissionControl(Priority.HIGH)
+	@QueryBudget(7)
 	@RequestMapping(value = "/{id}/pay", method = RequestMethod.PUT)
-	public Receipt pay(@PathVariable("id") Long id, @RequestBody BigDecimal payment)
-			throws InsufficientPaymentException {
-		return orderService.pay(id, payment);
+	@ApiResponses(value = { @ApiResponse(code = 400, message = "Insufficient payment", response = Error.class),
+			@ApiResponse(code = 409, message = "Order already paid", response = Error.class),
+			@ApiResponse(code = 503, message = "Payments backed up", response = Error.class) })
+	public Receipt pay(@PathVariable("id") Long id, @RequestBody Money payment,
+			@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey)
+			throws InsufficientPaymentException, OrderAlreadyPaidException, PaymentBacklogException {
+		return idempotentPaymentService.pay(id, payment, idempotencyKey);
+	}
+
+	@QueryBudget(1)
+	@RequestMapping(value = "/{id}/receipt", method = RequestMethod.GET)
+	public ResponseEntity<ReceiptView> getReceipt(@PathVariable("id") Long id) {
+		return ReceiptController.response(receiptService.getReceiptForOrder(id));
 	}
 
 	@ResponseStatus(value = HttpStatus.BAD_REQUEST)
@@ -59,4 +130,33 @@ public class OrderController {
 	public Error handleException(InsufficientPaymentException e) {
 		return new Error(e.getMessage());
 	}
+
+	@ResponseStatus(value = HttpStatus.CONFLICT)
+	@ExceptionHandler(OrderAlreadyPaidException.class)
+	@ResponseBody
+	public Error handleException(OrderAlreadyPaidException e) {
+		return new Error(e.getMessage());
+	}
+
+	@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+	@ExceptionHandler(InvalidItemException.class)
+	@ResponseBody
+	public Error handleException(InvalidItemException e) {
+		return new Error(e.getMessage());
+	}
+
+	@ResponseStatus(value = HttpStatus.NOT_FOUND)
+	@ExceptionHandler(OrderNotFoundException.class)
+	@ResponseBody
+	public Error handleException(OrderNotFoundException e) {
+		return new Error(e.getMessage());
+	}
+
+	@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+	@ExceptionHandler(PaymentBacklogException.class)
+	@ResponseBody
+	public Error handleException(PaymentBacklogException e, HttpServletResponse response) {
+		response.setHeader(HttpHeaders.RETRY_AFTER, PAYMENT_RETRY_AFTER_SECONDS);
+		return new Error(e.getMessage());
+	}
 }
@@ -0,0 +1,43 @@
+package answer.king.controller;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import answer.king.metrics.QueryBudget;
+import answer.king.service.ReceiptService;
+import answer.king.view.ReceiptView;
+
+@RestController
+@RequestMapping("/receipt")
+public class ReceiptController {
+
+	@Autowired
+	private ReceiptService receiptService;
+
+	@QueryBudget(1)
+	@RequestMapping(value = "/{id}", method = RequestMethod.GET)
+	public ResponseEntity<ReceiptView> get(@PathVariable("id") Long id) {
+		return response(receiptService.getReceipt(id));
+	}
+
+	/**
+	 * Receipts never change once written, so they are served with a strong
+	 * ETag and may be cached by the client.
+	 */
+	static ResponseEntity<ReceiptView> response(ReceiptView receipt) {
+		if (receipt == null) {
+			return ResponseEntity.notFound().build();
+		}
+		return ResponseEntity.ok()
+			.eTag("\"receipt-" + receipt.getId() + "\"")
+			.cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+			.body(receipt);
+	}
+}
@@ -0,0 +1,22 @@
+package answer.king.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import answer.king.service.SqlStatistics;
+import answer.king.service.SqlStatisticsService;
+
+@RestController
+@RequestMapping("/statistics")
+public class StatisticsController {
+
+	@Autowired
+	private SqlStatisticsService sqlStatisticsService;
+
+	@RequestMapping(value = "/sql", method = RequestMethod.GET)
+	public SqlStatistics getSqlStatistics() {
+		return sqlStatisticsService.getStatistics();
+	}
+}
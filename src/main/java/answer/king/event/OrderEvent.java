@@ -0,0 +1,87 @@
+package answer.king.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import answer.king.model.Money;
+
+/**
+ * A change to an order, small enough to push to every screen watching the
+ * order feed. Only the fields that apply to the type of change are set.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderEvent {
+
+	public enum Type {
+		CREATED, ITEM_ADDED, PAID
+	}
+
+	private final Type type;
+
+	private final Long orderId;
+
+	private final Long itemId;
+
+	private final Integer quantity;
+
+	private final Money total;
+
+	private final Money amount;
+
+	private final Long receiptId;
+
+	private OrderEvent(Type type, Long orderId, Long itemId, Integer quantity, Money total, Money amount,
+			Long receiptId) {
+		this.type = type;
+		this.orderId = orderId;
+		this.itemId = itemId;
+		this.quantity = quantity;
+		this.total = total;
+		this.amount = amount;
+		this.receiptId = receiptId;
+	}
+
+	public static OrderEvent created(Long orderId) {
+		return new OrderEvent(Type.CREATED, orderId, null, null, null, null, null);
+	}
+
+	/**
+	 * Items added to the order, scanned or in a basket: the quantity and
+	 * amount are what was added, to be applied to the item's line and the
+	 * total on screen.
+	 */
+	public static OrderEvent itemAdded(Long orderId, Long itemId, Integer quantity, long amount) {
+		return new OrderEvent(Type.ITEM_ADDED, orderId, itemId, quantity, null, Money.ofMinorUnits(amount), null);
+	}
+
+	public static OrderEvent paid(Long orderId, long total, Long receiptId) {
+		return new OrderEvent(Type.PAID, orderId, null, null, Money.ofMinorUnits(total), null, receiptId);
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public Money getTotal() {
+		return total;
+	}
+
+	public Money getAmount() {
+		return amount;
+	}
+
+	public Long getReceiptId() {
+		return receiptId;
+	}
+}
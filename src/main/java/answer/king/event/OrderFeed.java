@@ -0,0 +1,25 @@
+package answer.king.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Pushes order events to STOMP subscribers of {@value #DESTINATION} once the
+ * transaction that raised them has committed, so screens never see a change
+ * that was rolled back.
+ */
+@Component
+public class OrderFeed {
+
+	public static final String DESTINATION = "/topic/orders";
+
+	@Autowired
+	private SimpMessageSendingOperations messagingTemplate;
+
+	@TransactionalEventListener
+	public void publish(OrderEvent event) {
+		messagingTemplate.convertAndSend(DESTINATION, event);
+	}
+}
@@ -0,0 +1,14 @@
+package answer.king.event;
+
+import java.util.List;
+
+/**
+ * Side effect of a payment, such as printing or loyalty, that runs after the
+ * payment has committed and off the request thread. Handlers are called with
+ * batches of PAID events, oldest first. A batch is offered again after any
+ * handler fails on it, so handlers must cope with seeing an event twice.
+ */
+public interface PaymentEventHandler {
+
+	void handle(List<OrderEvent> events);
+}
@@ -0,0 +1,306 @@
+package answer.king.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import answer.king.model.PaymentDeadLetter;
+import answer.king.model.PaymentOutboxEntry;
+import answer.king.repo.PaymentDeadLetterRepository;
+import answer.king.repo.PaymentOutboxRepository;
+
+/**
+ * Hands PAID events to the {@link PaymentEventHandler}s once the payment has
+ * committed. Each event is written to T_PAYMENT_OUTBOX in the payment's own
+ * transaction, so it is kept exactly when the payment is and a payment
+ * request only pays for the insert. A single background thread drains the
+ * outbox oldest first, in batches, and deletes a batch once every handler has
+ * taken it. A batch that a handler fails on is tried again event by event, so
+ * one bad event doesn't hold back the rest; handlers see each event at least
+ * once. An event that still fails has the attempt counted and stays in the
+ * outbox until the next poll, and after maxAttempts it is moved to
+ * T_PAYMENT_DEAD_LETTER. While the outbox holds maxDepth events or more,
+ * payments are refused rather than adding to it.
+ */
+@Component
+@ManagedResource(objectName = "answer.king:type=Pipeline,name=PaymentEvents")
+public class PaymentEventPipeline {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PaymentEventPipeline.class);
+
+	@Autowired(required = false)
+	private List<PaymentEventHandler> handlers = Collections.emptyList();
+
+	@Autowired
+	private PaymentOutboxRepository outboxRepository;
+
+	@Autowired
+	private PaymentDeadLetterRepository deadLetterRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${answer.king.payment-events.batch-size:50}")
+	private int batchSize;
+
+	@Value("${answer.king.payment-events.poll-millis:1000}")
+	private long pollMillis;
+
+	@Value("${answer.king.payment-events.max-attempts:5}")
+	private int maxAttempts;
+
+	@Value("${answer.king.payment-events.max-depth:10000}")
+	private long maxDepth;
+
+	private final Semaphore wakeups = new Semaphore(0);
+
+	private final AtomicLong processed = new AtomicLong();
+
+	private final AtomicLong batches = new AtomicLong();
+
+	private final AtomicLong failed = new AtomicLong();
+
+	private final AtomicLong deadLettered = new AtomicLong();
+
+	/**
+	 * The events in the outbox, counted once per poll and kept up to date in
+	 * between, so a payment can check it without a query.
+	 */
+	private final AtomicLong depth = new AtomicLong();
+
+	private ExecutorService drainer;
+
+	private volatile boolean running;
+
+	@PostConstruct
+	public void start() {
+		running = true;
+		drainer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("payment-events-"));
+		drainer.execute(this::drain);
+	}
+
+	@PreDestroy
+	public void stop() throws InterruptedException {
+		running = false;
+		wakeups.release();
+		drainer.shutdown();
+		if (!drainer.awaitTermination(5, TimeUnit.SECONDS)) {
+			drainer.shutdownNow();
+		}
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+	public void record(OrderEvent event) {
+		if (event.getType() == OrderEvent.Type.PAID) {
+			PaymentOutboxEntry entry = new PaymentOutboxEntry();
+			entry.setOrderId(event.getOrderId());
+			entry.setTotal(event.getTotal().getMinorUnits());
+			entry.setReceiptId(event.getReceiptId());
+			outboxRepository.save(entry);
+		}
+	}
+
+	/**
+	 * Wakes the drainer once a payment has committed, rather than leaving its
+	 * event for the next poll.
+	 */
+	@TransactionalEventListener
+	public void onCommit(OrderEvent event) {
+		if (event.getType() == OrderEvent.Type.PAID) {
+			depth.incrementAndGet();
+			wakeups.release();
+		}
+	}
+
+	/**
+	 * Whether the outbox is too deep to take more payments, because the
+	 * handlers can't keep up or keep failing.
+	 */
+	@ManagedAttribute
+	public boolean isBackedUp() {
+		return depth.get() >= maxDepth;
+	}
+
+	private void drain() {
+		while (running) {
+			try {
+				wakeups.tryAcquire(pollMillis, TimeUnit.MILLISECONDS);
+				wakeups.drainPermits();
+				while (running && drainBatch()) {
+					// a full batch may mean there is more waiting
+				}
+				countDepth();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			} catch (RuntimeException e) {
+				LOGGER.error("Could not drain the payment outbox", e);
+			}
+		}
+	}
+
+	/**
+	 * Dispatches the oldest batch in the outbox and answers whether it was a
+	 * full batch that was taken by every handler.
+	 */
+	boolean drainBatch() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		List<PaymentOutboxEntry> entries = transactionTemplate
+			.execute(status -> outboxRepository.findOldest(new PageRequest(0, batchSize)));
+		if (entries.isEmpty()) {
+			return false;
+		}
+		if (!dispatch(events(entries))) {
+			retryOneByOne(transactionTemplate, entries);
+			return false;
+		}
+		transactionTemplate.execute(status -> {
+			outboxRepository.deleteInBatch(entries);
+			return null;
+		});
+		batches.incrementAndGet();
+		processed.addAndGet(entries.size());
+		depth.addAndGet(-entries.size());
+		return entries.size() == batchSize;
+	}
+
+	/**
+	 * Dispatches the events of a failed batch one at a time and deletes those
+	 * taken. The others have an attempt added, or are moved to the dead letter
+	 * table once that was their last.
+	 */
+	private void retryOneByOne(TransactionTemplate transactionTemplate, List<PaymentOutboxEntry> entries) {
+		List<PaymentOutboxEntry> taken = new ArrayList<>();
+		List<PaymentOutboxEntry> failing = new ArrayList<>();
+		for (PaymentOutboxEntry entry : entries) {
+			if (entries.size() > 1 && dispatch(events(Collections.singletonList(entry)))) {
+				taken.add(entry);
+			} else {
+				failing.add(entry);
+			}
+		}
+
+		List<Long> retried = new ArrayList<>();
+		List<PaymentOutboxEntry> exhausted = new ArrayList<>();
+		for (PaymentOutboxEntry entry : failing) {
+			if (entry.getAttempts() + 1 < maxAttempts) {
+				retried.add(entry.getId());
+			} else {
+				exhausted.add(entry);
+			}
+		}
+
+		transactionTemplate.execute(status -> {
+			if (!taken.isEmpty()) {
+				outboxRepository.deleteInBatch(taken);
+			}
+			if (!retried.isEmpty()) {
+				outboxRepository.addAttempt(retried);
+			}
+			if (!exhausted.isEmpty()) {
+				deadLetterRepository.save(deadLetters(exhausted));
+				outboxRepository.deleteInBatch(exhausted);
+			}
+			return null;
+		});
+		processed.addAndGet(taken.size());
+		deadLettered.addAndGet(exhausted.size());
+		depth.addAndGet(-(taken.size() + exhausted.size()));
+		if (!exhausted.isEmpty()) {
+			LOGGER.error("Moved {} payment events to the dead letter table after {} attempts", exhausted.size(),
+					maxAttempts);
+		}
+	}
+
+	private void countDepth() {
+		long count = new TransactionTemplate(transactionManager).execute(status -> outboxRepository.count());
+		depth.set(count);
+		if (count >= maxDepth) {
+			LOGGER.warn("{} payment events are waiting in the outbox; payments are refused until it is below {}",
+					count, maxDepth);
+		}
+	}
+
+	private boolean dispatch(List<OrderEvent> batch) {
+		boolean taken = true;
+		for (PaymentEventHandler handler : handlers) {
+			try {
+				handler.handle(batch);
+			} catch (RuntimeException e) {
+				taken = false;
+				failed.incrementAndGet();
+				LOGGER.error("{} failed on a batch of {} payment events", handler, batch.size(), e);
+			}
+		}
+		return taken;
+	}
+
+	private static List<OrderEvent> events(List<PaymentOutboxEntry> entries) {
+		List<OrderEvent> events = new ArrayList<>(entries.size());
+		for (PaymentOutboxEntry entry : entries) {
+			events.add(OrderEvent.paid(entry.getOrderId(), entry.getTotal(), entry.getReceiptId()));
+		}
+		return Collections.unmodifiableList(events);
+	}
+
+	private static List<PaymentDeadLetter> deadLetters(List<PaymentOutboxEntry> entries) {
+		List<PaymentDeadLetter> deadLetters = new ArrayList<>(entries.size());
+		for (PaymentOutboxEntry entry : entries) {
+			PaymentDeadLetter deadLetter = new PaymentDeadLetter();
+			deadLetter.setId(entry.getId());
+			deadLetter.setOrderId(entry.getOrderId());
+			deadLetter.setTotal(entry.getTotal());
+			deadLetter.setReceiptId(entry.getReceiptId());
+			deadLetter.setAttempts(entry.getAttempts() + 1);
+			deadLetters.add(deadLetter);
+		}
+		return deadLetters;
+	}
+
+	@ManagedAttribute
+	public long getQueueDepth() {
+		return depth.get();
+	}
+
+	@ManagedAttribute
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	@ManagedAttribute
+	public long getBatches() {
+		return batches.get();
+	}
+
+	@ManagedAttribute
+	public long getFailed() {
+		return failed.get();
+	}
+
+	@ManagedAttribute
+	public long getDeadLettered() {
+		return deadLettered.get();
+	}
+}
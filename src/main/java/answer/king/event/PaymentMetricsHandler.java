@@ -0,0 +1,32 @@
+package answer.king.event;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Feeds payments into the analytics meters: {@value #PAYMENTS} counts them
+ * and {@value #TAKINGS} sums their totals. A batch that is offered again is
+ * counted again, so the figures can run slightly high after a failure.
+ */
+@Component
+public class PaymentMetricsHandler implements PaymentEventHandler {
+
+	static final String PAYMENTS = "answer.king.payments";
+
+	static final String TAKINGS = "answer.king.payments.takings";
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Override
+	public void handle(List<OrderEvent> events) {
+		meterRegistry.counter(PAYMENTS).increment(events.size());
+		for (OrderEvent event : events) {
+			meterRegistry.summary(TAKINGS).record(event.getTotal().toBigDecimal().doubleValue());
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package answer.king.metrics;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+
+/**
+ * Publishes Hibernate's statistics as hibernate.* meters, so they are scraped
+ * with the rest of the metrics. The binder registers nothing unless
+ * hibernate.generate_statistics is on, as it is in the production profile.
+ */
+@Configuration
+public class HibernateMetricsConfig {
+
+	@Bean
+	public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+		return new HibernateMetrics(entityManagerFactory, "entityManagerFactory", Collections.emptyList());
+	}
+}
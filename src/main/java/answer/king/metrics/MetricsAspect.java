@@ -0,0 +1,111 @@
+package answer.king.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Times every service and repository method, counts the repository calls
+ * made while handling each request and counts the exceptions that escape the
+ * controllers. HTTP request timings themselves come from Micrometer's own
+ * http.server.requests metric.
+ */
+@Aspect
+@Component
+public class MetricsAspect implements Ordered {
+
+	static final String SERVICE_TIMER = "answer.king.service";
+
+	static final String REPOSITORY_TIMER = "answer.king.repository";
+
+	static final String REPOSITORY_CALLS_PER_REQUEST = "answer.king.repository.calls.per.request";
+
+	static final String EXCEPTIONS = "answer.king.exceptions";
+
+	private static final String NONE = "none";
+
+	private final ThreadLocal<int[]> repositoryCalls = ThreadLocal.withInitial(() -> new int[1]);
+
+	private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Around("within(answer.king.controller..*) && @within(org.springframework.web.bind.annotation.RestController)")
+	public Object countRequest(ProceedingJoinPoint joinPoint) throws Throwable {
+		int[] calls = repositoryCalls.get();
+		int callsBefore = calls[0];
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			meterRegistry.counter(EXCEPTIONS, "exception", e.getClass().getSimpleName()).increment();
+			throw e;
+		} finally {
+			meterRegistry.summary(REPOSITORY_CALLS_PER_REQUEST, "handler", handlerName(joinPoint))
+					.record(calls[0] - callsBefore);
+		}
+	}
+
+	@Around("within(answer.king.service..*) && @within(org.springframework.stereotype.Service)")
+	public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+		return time(joinPoint, SERVICE_TIMER, joinPoint.getSignature().getDeclaringType().getSimpleName());
+	}
+
+	@Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+	public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+		repositoryCalls.get()[0]++;
+		return time(joinPoint, REPOSITORY_TIMER, repositoryName(joinPoint.getTarget().getClass()));
+	}
+
+	private Object time(ProceedingJoinPoint joinPoint, String name, String type) throws Throwable {
+		long start = System.nanoTime();
+		String exception = NONE;
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			meterRegistry.timer(name, "class", type, "method", joinPoint.getSignature().getName(), "exception",
+					exception).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private static String handlerName(ProceedingJoinPoint joinPoint) {
+		return joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+	}
+
+	/**
+	 * Repositories are JDK proxies, so they are named after the repository
+	 * interface they implement rather than the proxy class.
+	 */
+	private String repositoryName(Class<?> repositoryClass) {
+		return repositoryNames.computeIfAbsent(repositoryClass, type -> {
+			for (Class<?> candidate : type.getInterfaces()) {
+				if (Repository.class.isAssignableFrom(candidate)) {
+					return candidate.getSimpleName();
+				}
+			}
+			return type.getSimpleName();
+		});
+	}
+
+	/**
+	 * Sits outside the retry aspect so that a retried call is timed as a
+	 * whole.
+	 */
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 2;
+	}
+}
@@ -0,0 +1,20 @@
+package answer.king.metrics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a request handler is expected to need, including
+ * any lazy loading while its response is written. Going over the budget is
+ * logged, or fails the request when answer.king.query-budget.fail is set.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+	int value();
+}
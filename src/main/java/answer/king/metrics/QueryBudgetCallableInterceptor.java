@@ -0,0 +1,31 @@
+package answer.king.metrics;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptorAdapter;
+
+/**
+ * Counts the SQL statements an async handler runs on the executor thread and
+ * leaves the count on the request, for {@link QueryBudgetInterceptor} to add
+ * to those it sees on the request's own threads.
+ */
+public class QueryBudgetCallableInterceptor extends CallableProcessingInterceptorAdapter {
+
+	private static final String START_COUNT = QueryBudgetCallableInterceptor.class.getName() + ".START_COUNT";
+
+	@Override
+	public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+		request.setAttribute(START_COUNT, QueryCounter.current(), RequestAttributes.SCOPE_REQUEST);
+	}
+
+	@Override
+	public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+		Integer startCount = (Integer) request.getAttribute(START_COUNT, RequestAttributes.SCOPE_REQUEST);
+		if (startCount != null) {
+			request.setAttribute(QueryBudgetInterceptor.ASYNC_COUNT, QueryCounter.current() - startCount,
+					RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package answer.king.metrics;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Checks each request against the {@link QueryBudget} of its handler. The
+ * check runs once the response body has been written, so statements issued
+ * by lazy loading during serialisation are counted too, as are those run by
+ * an async handler on another thread.
+ */
+public class QueryBudgetInterceptor extends HandlerInterceptorAdapter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryBudgetInterceptor.class);
+
+	private static final String START_COUNT = QueryBudgetInterceptor.class.getName() + ".START_COUNT";
+
+	static final String ASYNC_COUNT = QueryBudgetInterceptor.class.getName() + ".ASYNC_COUNT";
+
+	private final boolean failOnExceeded;
+
+	public QueryBudgetInterceptor(boolean failOnExceeded) {
+		this.failOnExceeded = failOnExceeded;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		request.setAttribute(START_COUNT, QueryCounter.current());
+		return true;
+	}
+
+	@Override
+	public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+			ModelAndView modelAndView) {
+		QueryBudget budget = budgetOf(handler);
+		Integer startCount = (Integer) request.getAttribute(START_COUNT);
+		if (budget == null || startCount == null) {
+			return;
+		}
+		Integer asyncCount = (Integer) request.getAttribute(ASYNC_COUNT);
+		int queries = QueryCounter.current() - startCount + (asyncCount == null ? 0 : asyncCount);
+		if (queries > budget.value()) {
+			String message = request.getMethod() + " " + request.getRequestURI() + " ran " + queries
+					+ " SQL statements, over its budget of " + budget.value();
+			if (failOnExceeded) {
+				throw new QueryBudgetExceededException(message);
+			}
+			LOGGER.warn(message);
+		}
+	}
+
+	private static QueryBudget budgetOf(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			return ((HandlerMethod) handler).getMethodAnnotation(QueryBudget.class);
+		}
+		return null;
+	}
+}
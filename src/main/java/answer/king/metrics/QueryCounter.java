@@ -0,0 +1,27 @@
+package answer.king.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on each thread. Hibernate
+ * creates the inspector itself, from the
+ * hibernate.session_factory.statement_inspector setting, so the count lives
+ * in a static thread local. The count only ever goes up; callers measure a
+ * piece of work by taking {@link #current()} before and after it.
+ */
+public class QueryCounter implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+	public static int current() {
+		return COUNT.get()[0];
+	}
+
+	@Override
+	public String inspect(String sql) {
+		COUNT.get()[0]++;
+		return sql;
+	}
+}
@@ -0,0 +1,32 @@
+package answer.king.model;
+
+public class BasketItem {
+
+	private Long itemId;
+
+	private Integer quantity;
+
+	public BasketItem() {
+	}
+
+	public BasketItem(Long itemId, Integer quantity) {
+		this.itemId = itemId;
+		this.quantity = quantity;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(Long itemId) {
+		this.itemId = itemId;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+}
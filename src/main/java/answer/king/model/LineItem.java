@@ -1,29 +1,39 @@
 package answer.king.model;
 
-import java.math.BigDecimal;
-
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "T_LINE_ITEM")
+@Table(name = "T_LINE_ITEM", uniqueConstraints = @UniqueConstraint(name = "UX_LINE_ITEM_ORDER_ITEM",
+		columnNames = { "ORDER_ID", "ITEM_ID" }))
 public class LineItem {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "lineItemIdGenerator")
+	@GenericGenerator(name = "lineItemIdGenerator", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "SEQ_LINE_ITEM"))
 	private Long id;
 
+	@Version
+	@JsonIgnore
+	private Long version;
+
 	private String name;
 
-	private BigDecimal price;
+	private Money price;
 
 	@JsonIgnore
 	@ManyToOne(fetch = FetchType.LAZY)
@@ -45,6 +55,14 @@ public class LineItem {
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -53,11 +71,11 @@ public class LineItem {
 		this.name = name;
 	}
 
-	public BigDecimal getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 
-	public void setPrice(BigDecimal price) {
+	public void setPrice(Money price) {
 		this.price = price;
 	}
 
@@ -0,0 +1,113 @@
+package answer.king.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * An amount of money held as a whole number of minor currency units (pence).
+ * Arithmetic works on the long directly, so comparing or summing amounts
+ * needs no intermediate {@link BigDecimal}s. On the wire and in the JSON it
+ * is still written as a plain decimal number.
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public final class Money implements Comparable<Money> {
+
+	public static final Currency DEFAULT_CURRENCY = Currency.getInstance("GBP");
+
+	private static final int SCALE = 2;
+
+	private final long minorUnits;
+
+	private final Currency currency;
+
+	private Money(long minorUnits, Currency currency) {
+		this.minorUnits = minorUnits;
+		this.currency = currency;
+	}
+
+	public static Money ofMinorUnits(long minorUnits) {
+		return new Money(minorUnits, DEFAULT_CURRENCY);
+	}
+
+	/**
+	 * Takes the amount as it is, throwing {@link ArithmeticException} rather
+	 * than rounding when it holds a fraction of a minor unit, or when it is
+	 * too large to hold.
+	 */
+	public static Money of(BigDecimal amount) {
+		return ofMinorUnits(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+	}
+
+	public long getMinorUnits() {
+		return minorUnits;
+	}
+
+	public Currency getCurrency() {
+		return currency;
+	}
+
+	public boolean isNegative() {
+		return minorUnits < 0;
+	}
+
+	public boolean isLessThan(long otherMinorUnits) {
+		return minorUnits < otherMinorUnits;
+	}
+
+	public Money plus(Money other) {
+		checkSameCurrency(other);
+		return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+	}
+
+	public Money minus(Money other) {
+		checkSameCurrency(other);
+		return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+	}
+
+	public Money times(int quantity) {
+		return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+	}
+
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(minorUnits, SCALE);
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		checkSameCurrency(other);
+		return Long.compare(minorUnits, other.minorUnits);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof Money)) {
+			return false;
+		}
+		Money money = (Money) other;
+		return minorUnits == money.minorUnits && currency.equals(money.currency);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return currency.getCurrencyCode() + " " + toBigDecimal().toPlainString();
+	}
+
+	private void checkSameCurrency(Money other) {
+		if (!currency.equals(other.currency)) {
+			throw new IllegalArgumentException("cannot mix " + currency + " and " + other.currency);
+		}
+	}
+}
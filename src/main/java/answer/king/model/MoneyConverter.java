@@ -0,0 +1,22 @@
+package answer.king.model;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores money as a BIGINT column of minor units. Every amount in the
+ * database is in {@link Money#DEFAULT_CURRENCY}.
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, Long> {
+
+	@Override
+	public Long convertToDatabaseColumn(Money money) {
+		return money == null ? null : money.getMinorUnits();
+	}
+
+	@Override
+	public Money convertToEntityAttribute(Long minorUnits) {
+		return minorUnits == null ? null : Money.ofMinorUnits(minorUnits);
+	}
+}
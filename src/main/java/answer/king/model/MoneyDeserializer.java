@@ -0,0 +1,48 @@
+package answer.king.model;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads money from a decimal number, or from a string holding one. Amounts
+ * with fractions of a penny, or too large to hold, are rejected as invalid
+ * input rather than rounded.
+ */
+public class MoneyDeserializer extends StdDeserializer<Money> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String NOT_AN_AMOUNT = "not a whole number of minor units within range";
+
+	public MoneyDeserializer() {
+		super(Money.class);
+	}
+
+	@Override
+	public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		JsonToken token = parser.getCurrentToken();
+		if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+			BigDecimal amount = parser.getDecimalValue();
+			try {
+				return Money.of(amount);
+			} catch (ArithmeticException e) {
+				return (Money) context.handleWeirdNumberValue(Money.class, amount, NOT_AN_AMOUNT);
+			}
+		}
+		if (token == JsonToken.VALUE_STRING) {
+			try {
+				return Money.of(new BigDecimal(parser.getText().trim()));
+			} catch (NumberFormatException e) {
+				return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), "not a decimal amount");
+			} catch (ArithmeticException e) {
+				return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), NOT_AN_AMOUNT);
+			}
+		}
+		return (Money) context.handleUnexpectedToken(Money.class, parser);
+	}
+}
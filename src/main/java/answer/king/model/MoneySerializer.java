@@ -0,0 +1,24 @@
+package answer.king.model;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes money as a decimal number, such as {@code 10.50}.
+ */
+public class MoneySerializer extends StdSerializer<Money> {
+
+	private static final long serialVersionUID = 1L;
+
+	public MoneySerializer() {
+		super(Money.class);
+	}
+
+	@Override
+	public void serialize(Money money, JsonGenerator generator, SerializerProvider provider) throws IOException {
+		generator.writeNumber(money.toBigDecimal());
+	}
+}
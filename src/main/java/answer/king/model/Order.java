@@ -5,23 +5,38 @@ import java.util.List;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "T_ORDER")
+@Table(name = "T_ORDER", indexes = @Index(name = "IX_ORDER_PAID", columnList = "PAID"))
 public class Order {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "orderIdGenerator")
+	@GenericGenerator(name = "orderIdGenerator", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "SEQ_ORDER"))
 	private Long id;
 
+	@Version
+	@JsonIgnore
+	private Long version;
+
 	private Boolean paid = false;
 
+	@JsonIgnore
+	private long total;
+
 	@OneToMany(mappedBy = "order", cascade = { CascadeType.ALL, CascadeType.PERSIST })
 	@JsonProperty("items")
 	private List<LineItem> lineItems;
@@ -34,6 +49,14 @@ public class Order {
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Boolean getPaid() {
 		return paid;
 	}
@@ -42,6 +65,18 @@ public class Order {
 		this.paid = paid;
 	}
 
+	/**
+	 * Running total of the line items (price times quantity), in minor currency
+	 * units.
+	 */
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
 	public List<LineItem> getLineItems() {
 		return lineItems;
 	}
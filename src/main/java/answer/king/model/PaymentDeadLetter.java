@@ -0,0 +1,66 @@
+package answer.king.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * A payment event that handlers kept failing on, moved out of the outbox so
+ * it no longer holds back the events behind it. It keeps the id it had in
+ * the outbox.
+ */
+@Entity
+@Table(name = "T_PAYMENT_DEAD_LETTER")
+public class PaymentDeadLetter {
+
+	@Id
+	private Long id;
+
+	private Long orderId;
+
+	private long total;
+
+	private Long receiptId;
+
+	private int attempts;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Long orderId) {
+		this.orderId = orderId;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public Long getReceiptId() {
+		return receiptId;
+	}
+
+	public void setReceiptId(Long receiptId) {
+		this.receiptId = receiptId;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+}
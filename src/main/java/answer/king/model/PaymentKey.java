@@ -0,0 +1,48 @@
+package answer.king.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * Records which receipt an idempotency key produced, so that a retried payment
+ * can be answered after a restart.
+ */
+@Entity
+@Table(name = "T_PAYMENT_KEY", indexes = @Index(name = "IX_PAYMENT_KEY_CREATED_AT", columnList = "CREATED_AT"))
+public class PaymentKey {
+
+	@Id
+	private String idempotencyKey;
+
+	private Long receiptId;
+
+	@Column(name = "CREATED_AT")
+	private Long createdAt;
+
+	public String getIdempotencyKey() {
+		return idempotencyKey;
+	}
+
+	public void setIdempotencyKey(String idempotencyKey) {
+		this.idempotencyKey = idempotencyKey;
+	}
+
+	public Long getReceiptId() {
+		return receiptId;
+	}
+
+	public void setReceiptId(Long receiptId) {
+		this.receiptId = receiptId;
+	}
+
+	public Long getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(Long createdAt) {
+		this.createdAt = createdAt;
+	}
+}
@@ -0,0 +1,74 @@
+package answer.king.model;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * A payment whose side effects have not run yet. It is written in the same
+ * transaction as the payment and deleted once every handler has seen it. The
+ * attempts are the dispatches a handler has failed on.
+ */
+@Entity
+@Table(name = "T_PAYMENT_OUTBOX")
+public class PaymentOutboxEntry {
+
+	@Id
+	@GeneratedValue(generator = "paymentOutboxIdGenerator")
+	@GenericGenerator(name = "paymentOutboxIdGenerator", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "SEQ_PAYMENT_OUTBOX"))
+	private Long id;
+
+	private Long orderId;
+
+	private long total;
+
+	private Long receiptId;
+
+	private int attempts;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public void setOrderId(Long orderId) {
+		this.orderId = orderId;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public Long getReceiptId() {
+		return receiptId;
+	}
+
+	public void setReceiptId(Long receiptId) {
+		this.receiptId = receiptId;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+}
@@ -0,0 +1,32 @@
+package answer.king.model;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator using the pooled optimizer, so that one round trip to the
+ * sequence hands out a block of ids. The block size is shared by every entity
+ * and must match the increment the migrations create the sequences with, so it
+ * is fixed rather than configurable.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String STRATEGY = "answer.king.model.PooledSequenceGenerator";
+
+	/**
+	 * The {@code increment by} of every sequence in the migrations.
+	 */
+	public static final int ALLOCATION_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		params.setProperty(INCREMENT_PARAM, String.valueOf(ALLOCATION_SIZE));
+		params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED.getExternalName());
+		super.configure(type, params, serviceRegistry);
+	}
+}
@@ -0,0 +1,32 @@
+package answer.king.model;
+
+public class PriceChange {
+
+	private Long itemId;
+
+	private Money price;
+
+	public PriceChange() {
+	}
+
+	public PriceChange(Long itemId, Money price) {
+		this.itemId = itemId;
+		this.price = price;
+	}
+
+	public Long getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(Long itemId) {
+		this.itemId = itemId;
+	}
+
+	public Money getPrice() {
+		return price;
+	}
+
+	public void setPrice(Money price) {
+		this.price = price;
+	}
+}
@@ -1,28 +1,54 @@
 package answer.king.model;
 
-import java.math.BigDecimal;
+import java.util.List;
 
+import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
-import javax.persistence.JoinColumn;
-import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+
+/**
+ * Snapshot of an order taken when it was paid. The total, change and lines are
+ * copied into the receipt row, so a receipt never changes afterwards and is
+ * read back with a single primary key lookup. An order has at most one
+ * receipt.
+ */
 @Entity
-@Table(name = "T_RECEIPT")
+@Immutable
+@Table(name = "T_RECEIPT", uniqueConstraints = @UniqueConstraint(name = "UX_RECEIPT_ORDER_ID",
+		columnNames = "ORDER_ID"))
 public class Receipt {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(generator = "receiptIdGenerator")
+	@GenericGenerator(name = "receiptIdGenerator", strategy = PooledSequenceGenerator.STRATEGY,
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "SEQ_RECEIPT"))
 	private Long id;
 
-	private BigDecimal payment;
+	@Column(name = "ORDER_ID")
+	private Long orderId;
+
+	private Money payment;
 
-	@OneToOne
-	@JoinColumn(name = "ORDER_ID")
-	private Order order;
+	private Money total;
+
+	private Money change;
+
+	@Column(length = 65535)
+	@Convert(converter = ReceiptLinesConverter.class)
+	@JsonProperty("items")
+	private List<ReceiptLine> lineItems;
 
 	public Long getId() {
 		return id;
@@ -32,28 +58,77 @@ public class Receipt {
 		this.id = id;
 	}
 
-	public Order getOrder() {
-		return order;
+	public Long getOrderId() {
+		return orderId;
 	}
 
-	public void setOrder(Order order) {
-		this.order = order;
+	public void setOrderId(Long orderId) {
+		this.orderId = orderId;
 	}
 
-	public BigDecimal getPayment() {
+	public Money getPayment() {
 		return payment;
 	}
 
-	public void setPayment(BigDecimal payment) {
+	public void setPayment(Money payment) {
 		this.payment = payment;
 	}
 
-	public BigDecimal getChange() {
-		BigDecimal totalOrderPrice = order.getLineItems()
-			.stream()
-			.map(LineItem::getPrice)
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
+	public Money getTotal() {
+		return total;
+	}
+
+	public void setTotal(Money total) {
+		this.total = total;
+	}
+
+	public Money getChange() {
+		return change;
+	}
+
+	public void setChange(Money change) {
+		this.change = change;
+	}
+
+	public List<ReceiptLine> getLineItems() {
+		return lineItems;
+	}
+
+	public void setLineItems(List<ReceiptLine> lineItems) {
+		this.lineItems = lineItems;
+	}
+
+	/**
+	 * The paid order in the shape receipts embedded it before they became
+	 * snapshots, kept for clients of PUT /order/{id}/pay that still read it.
+	 */
+	@JsonProperty(access = Access.READ_ONLY)
+	public PaidOrder getOrder() {
+		return new PaidOrder(orderId, lineItems);
+	}
+
+	public static class PaidOrder {
+
+		private final Long id;
+
+		@JsonProperty("items")
+		private final List<ReceiptLine> lineItems;
+
+		PaidOrder(Long id, List<ReceiptLine> lineItems) {
+			this.id = id;
+			this.lineItems = lineItems;
+		}
+
+		public Long getId() {
+			return id;
+		}
+
+		public Boolean getPaid() {
+			return true;
+		}
 
-		return payment.subtract(totalOrderPrice);
+		public List<ReceiptLine> getLineItems() {
+			return lineItems;
+		}
 	}
 }
@@ -0,0 +1,47 @@
+package answer.king.model;
+
+/**
+ * A line of a receipt, frozen at the time of payment.
+ */
+public class ReceiptLine {
+
+	private Long id;
+
+	private String name;
+
+	private Money price;
+
+	private Integer quantity;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public Money getPrice() {
+		return price;
+	}
+
+	public void setPrice(Money price) {
+		this.price = price;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(Integer quantity) {
+		this.quantity = quantity;
+	}
+}
@@ -0,0 +1,48 @@
+package answer.king.model;
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Stores a receipt's lines as JSON in a column of the receipt row, so that a
+ * receipt is read back without a join.
+ */
+@Converter
+public class ReceiptLinesConverter implements AttributeConverter<List<ReceiptLine>, String> {
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private static final TypeReference<List<ReceiptLine>> LINES = new TypeReference<List<ReceiptLine>>() {
+	};
+
+	@Override
+	public String convertToDatabaseColumn(List<ReceiptLine> lines) {
+		if (lines == null) {
+			return null;
+		}
+		try {
+			return OBJECT_MAPPER.writeValueAsString(lines);
+		} catch (JsonProcessingException e) {
+			throw new IllegalArgumentException("receipt lines cannot be written", e);
+		}
+	}
+
+	@Override
+	public List<ReceiptLine> convertToEntityAttribute(String json) {
+		if (json == null) {
+			return null;
+		}
+		try {
+			return OBJECT_MAPPER.readValue(json, LINES);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("receipt lines cannot be read", e);
+		}
+	}
+}
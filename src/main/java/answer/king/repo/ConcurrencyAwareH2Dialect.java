@@ -0,0 +1,42 @@
+package answer.king.repo;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.exception.LockAcquisitionException;
+import org.hibernate.exception.spi.SQLExceptionConversionDelegate;
+import org.hibernate.internal.util.JdbcExceptionHelper;
+
+/**
+ * H2's MVStore rejects an update to a row that another open transaction has
+ * already changed with a vendor error code that Hibernate doesn't recognise.
+ * Reporting it as a lock failure lets it be retried like any other
+ * concurrency conflict. The same goes for two transactions that add the same
+ * item to an order at once: the loser trips the unique line item index, and
+ * on retry finds the winner's line and adds to it. Two payments of one order
+ * race on the unique receipt index, and the loser's retry finds it paid.
+ */
+public class ConcurrencyAwareH2Dialect extends H2Dialect {
+
+	private static final int CONCURRENT_UPDATE = 90131;
+
+	private static final int DUPLICATE_KEY = 23505;
+
+	private static final String LINE_ITEM_INDEX = "UX_LINE_ITEM_ORDER_ITEM";
+
+	private static final String RECEIPT_INDEX = "UX_RECEIPT_ORDER_ID";
+
+	@Override
+	public SQLExceptionConversionDelegate buildSQLExceptionConversionDelegate() {
+		SQLExceptionConversionDelegate delegate = super.buildSQLExceptionConversionDelegate();
+		return (sqlException, message, sql) -> {
+			int errorCode = JdbcExceptionHelper.extractErrorCode(sqlException);
+			if (errorCode == CONCURRENT_UPDATE || errorCode == DUPLICATE_KEY && isRetryable(sqlException.getMessage())) {
+				return new LockAcquisitionException(message, sqlException, sql);
+			}
+			return delegate == null ? null : delegate.convert(sqlException, message, sql);
+		};
+	}
+
+	private static boolean isRetryable(String message) {
+		return message.contains(LINE_ITEM_INDEX) || message.contains(RECEIPT_INDEX);
+	}
+}
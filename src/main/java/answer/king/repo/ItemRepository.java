@@ -1,8 +1,20 @@
 package answer.king.repo;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import answer.king.model.Item;
+import answer.king.view.ItemView;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-}
\ No newline at end of file
+
+	@Query("select new answer.king.view.ItemView(i.id, i.name, i.price) from Item i order by i.id")
+	List<ItemView> findAllViews();
+
+	@Query("select new answer.king.view.ItemView(i.id, i.name, i.price) from Item i where i.id in :ids")
+	List<ItemView> findViews(@Param("ids") Collection<Long> ids);
+}
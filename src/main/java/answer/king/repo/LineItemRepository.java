@@ -1,8 +1,34 @@
 package answer.king.repo;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import answer.king.model.LineItem;
 
 public interface LineItemRepository extends JpaRepository<LineItem, Long> {
-}
\ No newline at end of file
+
+	@Query("select l from LineItem l join fetch l.item i where l.order.id = :orderId and i.id in :itemIds")
+	List<LineItem> findByOrderIdAndItemIds(@Param("orderId") Long orderId, @Param("itemIds") Collection<Long> itemIds);
+
+	/**
+	 * Adds to the quantity of the order's line for an item in a single
+	 * statement through the unique (ORDER_ID, ITEM_ID) index, as long as the
+	 * line is at the given price. The version is bumped too, so anyone holding
+	 * the line loaded sees a conflict. Returns 0 when the order has no line for
+	 * the item at that price.
+	 */
+	@Modifying
+	@Query(value = "update t_line_item set quantity = quantity + :quantity, version = version + 1"
+			+ " where order_id = :orderId and item_id = :itemId and price = :price", nativeQuery = true)
+	int addQuantity(@Param("orderId") Long orderId, @Param("itemId") Long itemId, @Param("price") long price,
+			@Param("quantity") Integer quantity);
+
+	@Query(value = "select price from t_line_item where order_id = :orderId and item_id = :itemId",
+			nativeQuery = true)
+	Long findPrice(@Param("orderId") Long orderId, @Param("itemId") Long itemId);
+}
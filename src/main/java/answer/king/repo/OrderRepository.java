@@ -1,8 +1,31 @@
 package answer.king.repo;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import answer.king.model.Order;
+import answer.king.view.OrderLineRow;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-}
\ No newline at end of file
+
+	@Query("select o.id from Order o where o.id > :after order by o.id")
+	List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+	@Query("select new answer.king.view.OrderLineRow(o.id, o.paid, l.id, l.name, l.price, l.quantity)"
+			+ " from Order o left join o.lineItems l where o.id in :ids order by o.id, l.id")
+	List<OrderLineRow> findLineRows(@Param("ids") Collection<Long> ids);
+
+	/**
+	 * Adds an amount to the running total without loading the order, bumping
+	 * the version so anyone holding the order loaded sees a conflict.
+	 */
+	@Modifying
+	@Query("update Order o set o.total = o.total + :amount, o.version = o.version + 1 where o.id = :orderId and o.paid = false")
+	int addToTotal(@Param("orderId") Long orderId, @Param("amount") long amount);
+}
@@ -0,0 +1,8 @@
+package answer.king.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import answer.king.model.PaymentDeadLetter;
+
+public interface PaymentDeadLetterRepository extends JpaRepository<PaymentDeadLetter, Long> {
+}
@@ -0,0 +1,15 @@
+package answer.king.repo;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import answer.king.model.PaymentKey;
+
+public interface PaymentKeyRepository extends JpaRepository<PaymentKey, String> {
+
+	@Modifying
+	@Query("delete from PaymentKey k where k.createdAt < :cutoff")
+	int deleteCreatedBefore(@Param("cutoff") long cutoff);
+}
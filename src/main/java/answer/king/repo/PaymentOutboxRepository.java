@@ -0,0 +1,22 @@
+package answer.king.repo;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import answer.king.model.PaymentOutboxEntry;
+
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxEntry, Long> {
+
+	@Query("select e from PaymentOutboxEntry e order by e.id")
+	List<PaymentOutboxEntry> findOldest(Pageable page);
+
+	@Modifying
+	@Query("update PaymentOutboxEntry e set e.attempts = e.attempts + 1 where e.id in :ids")
+	int addAttempt(@Param("ids") Collection<Long> ids);
+}
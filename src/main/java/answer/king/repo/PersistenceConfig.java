@@ -0,0 +1,96 @@
+package answer.king.repo;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import answer.king.repo.ReadWriteRoutingDataSource.Route;
+
+@Configuration
+public class PersistenceConfig {
+
+	/**
+	 * Boot's own adapter, set up from the spring.jpa properties in the same
+	 * way, but with the read-only aware dialect.
+	 */
+	@Bean
+	public JpaVendorAdapter jpaVendorAdapter(JpaProperties properties, DataSource dataSource) {
+		HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+
+			private final HibernateJpaDialect jpaDialect = new ReadOnlyAwareHibernateJpaDialect();
+
+			@Override
+			public HibernateJpaDialect getJpaDialect() {
+				return jpaDialect;
+			}
+		};
+		adapter.setShowSql(properties.isShowSql());
+		adapter.setDatabase(properties.determineDatabase(dataSource));
+		adapter.setDatabasePlatform(properties.getDatabasePlatform());
+		adapter.setGenerateDdl(properties.isGenerateDdl());
+		return adapter;
+	}
+
+	/**
+	 * The pools below are only created when answer.king.replica.url is set;
+	 * otherwise Boot creates the usual single pool. Both take their sizing from
+	 * the spring.datasource.hikari properties.
+	 */
+	@Bean
+	@ConditionalOnProperty("answer.king.replica.url")
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		HikariDataSource dataSource = (HikariDataSource) properties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.build();
+		dataSource.setPoolName("primary");
+		return dataSource;
+	}
+
+	@Bean
+	@ConditionalOnProperty("answer.king.replica.url")
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment environment) {
+		HikariDataSource dataSource = (HikariDataSource) DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(environment.getProperty("answer.king.replica.url"))
+				.username(environment.getProperty("answer.king.replica.username", properties.determineUsername()))
+				.password(environment.getProperty("answer.king.replica.password", properties.determinePassword()))
+				.build();
+		dataSource.setPoolName("replica");
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+
+	@Bean
+	@Primary
+	@ConditionalOnProperty("answer.king.replica.url")
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+			@Qualifier("replicaDataSource") DataSource replica) {
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(Route.PRIMARY, primary);
+		targets.put(Route.REPLICA, replica);
+		ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource();
+		routing.setTargetDataSources(targets);
+		routing.setDefaultTargetDataSource(primary);
+		routing.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routing);
+	}
+}
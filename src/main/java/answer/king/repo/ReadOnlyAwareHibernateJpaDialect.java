@@ -0,0 +1,57 @@
+package answer.king.repo;
+
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+/**
+ * Makes read-only transactions cheaper. Spring already switches the session to
+ * flush mode MANUAL for them. On top of that, entities are loaded read-only,
+ * so Hibernate keeps no snapshot of them for dirty checking. The session's
+ * previous setting is restored afterwards, because with open-session-in-view
+ * the same session goes on to serve any writes in the request.
+ */
+public class ReadOnlyAwareHibernateJpaDialect extends HibernateJpaDialect {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+			throws PersistenceException, SQLException, TransactionException {
+		Session session = getSession(entityManager);
+		boolean previousDefaultReadOnly = session.isDefaultReadOnly();
+		Object transactionData = super.beginTransaction(entityManager, definition);
+		if (definition.isReadOnly()) {
+			session.setDefaultReadOnly(true);
+		}
+		return new ReadOnlyTransactionData(transactionData, session, previousDefaultReadOnly);
+	}
+
+	@Override
+	public void cleanupTransaction(Object transactionData) {
+		ReadOnlyTransactionData readOnlyData = (ReadOnlyTransactionData) transactionData;
+		readOnlyData.session.setDefaultReadOnly(readOnlyData.previousDefaultReadOnly);
+		super.cleanupTransaction(readOnlyData.transactionData);
+	}
+
+	private static class ReadOnlyTransactionData {
+
+		private final Object transactionData;
+
+		private final Session session;
+
+		private final boolean previousDefaultReadOnly;
+
+		ReadOnlyTransactionData(Object transactionData, Session session, boolean previousDefaultReadOnly) {
+			this.transactionData = transactionData;
+			this.session = session;
+			this.previousDefaultReadOnly = previousDefaultReadOnly;
+		}
+	}
+}
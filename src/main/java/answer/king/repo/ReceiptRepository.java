@@ -1,8 +1,19 @@
 package answer.king.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import answer.king.model.Receipt;
+import answer.king.view.ReceiptView;
 
 public interface ReceiptRepository extends JpaRepository<Receipt, Long> {
-}
\ No newline at end of file
+
+	@Query("select new answer.king.view.ReceiptView(r.id, r.orderId, r.payment, r.total, r.change, r.lineItems)"
+			+ " from Receipt r where r.id = :id")
+	ReceiptView findViewById(@Param("id") Long id);
+
+	@Query("select new answer.king.view.ReceiptView(r.id, r.orderId, r.payment, r.total, r.change, r.lineItems)"
+			+ " from Receipt r where r.orderId = :orderId")
+	ReceiptView findViewByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,130 @@
+package answer.king.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import answer.king.model.PaymentKey;
+import answer.king.model.Receipt;
+import answer.king.repo.PaymentKeyRepository;
+import answer.king.repo.ReceiptRepository;
+
+/**
+ * Remembers the receipt produced for each idempotency key. Entries are kept in
+ * memory, least recently used first out once the store is full, and expire
+ * after a fixed time. When answer.king.idempotency.persistent is set the keys
+ * are also written to T_PAYMENT_KEY so that they survive a restart; expired
+ * rows are purged every answer.king.idempotency.purge-interval-millis.
+ */
+@Component
+public class IdempotencyStore {
+
+	@Value("${answer.king.idempotency.max-entries:10000}")
+	private int maxEntries;
+
+	@Value("${answer.king.idempotency.ttl-seconds:86400}")
+	private long ttlSeconds;
+
+	@Value("${answer.king.idempotency.persistent:false}")
+	private boolean persistent;
+
+	@Autowired
+	private PaymentKeyRepository paymentKeyRepository;
+
+	@Autowired
+	private ReceiptRepository receiptRepository;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 4270946378416934361L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			return size() > maxEntries;
+		}
+	};
+
+	public Receipt get(String key) {
+		long now = System.currentTimeMillis();
+		synchronized (entries) {
+			Entry entry = entries.get(key);
+			if (entry != null) {
+				if (entry.expiresAt > now) {
+					return entry.receipt;
+				}
+				entries.remove(key);
+			}
+		}
+		return persistent ? findPersisted(key, now) : null;
+	}
+
+	public void put(String key, Receipt receipt) {
+		remember(key, receipt, System.currentTimeMillis() + ttlMillis());
+	}
+
+	/**
+	 * Writes the key to T_PAYMENT_KEY when the store is persistent. Call it in
+	 * the transaction that saves the receipt, so that the two commit together.
+	 */
+	public void record(String key, Receipt receipt) {
+		if (persistent) {
+			persist(key, receipt, System.currentTimeMillis());
+		}
+	}
+
+	@Transactional
+	@Scheduled(fixedDelayString = "${answer.king.idempotency.purge-interval-millis:3600000}")
+	public void purgeExpired() {
+		if (persistent) {
+			paymentKeyRepository.deleteCreatedBefore(System.currentTimeMillis() - ttlMillis());
+		}
+	}
+
+	private Receipt findPersisted(String key, long now) {
+		PaymentKey paymentKey = paymentKeyRepository.findOne(key);
+		if (paymentKey == null || paymentKey.getCreatedAt() + ttlMillis() <= now) {
+			return null;
+		}
+		Receipt receipt = receiptRepository.findOne(paymentKey.getReceiptId());
+		if (receipt != null) {
+			remember(key, receipt, paymentKey.getCreatedAt() + ttlMillis());
+		}
+		return receipt;
+	}
+
+	private void persist(String key, Receipt receipt, long now) {
+		PaymentKey paymentKey = new PaymentKey();
+		paymentKey.setIdempotencyKey(key);
+		paymentKey.setReceiptId(receipt.getId());
+		paymentKey.setCreatedAt(now);
+		paymentKeyRepository.save(paymentKey);
+	}
+
+	private void remember(String key, Receipt receipt, long expiresAt) {
+		synchronized (entries) {
+			entries.put(key, new Entry(receipt, expiresAt));
+		}
+	}
+
+	private long ttlMillis() {
+		return TimeUnit.SECONDS.toMillis(ttlSeconds);
+	}
+
+	private static class Entry {
+
+		private final Receipt receipt;
+
+		private final long expiresAt;
+
+		Entry(Receipt receipt, long expiresAt) {
+			this.receipt = receipt;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
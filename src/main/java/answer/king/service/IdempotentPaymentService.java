@@ -0,0 +1,103 @@
+package answer.king.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import answer.king.model.Money;
+import answer.king.model.Receipt;
+
+/**
+ * Pays orders at most once per idempotency key. A retry of a payment that has
+ * already succeeded gets the original receipt back without a transaction, and
+ * a retry that arrives while the first attempt is still running waits for its
+ * result instead of paying again. The client's key is stored as a digest, so
+ * a key of any length fits T_PAYMENT_KEY.
+ */
+@Service
+public class IdempotentPaymentService {
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	private final ConcurrentMap<String, CompletableFuture<Receipt>> inFlight = new ConcurrentHashMap<>();
+
+	public Receipt pay(Long id, Money payment, String idempotencyKey)
+			throws InsufficientPaymentException, OrderAlreadyPaidException, PaymentBacklogException {
+		if (idempotencyKey == null) {
+			return orderService.pay(id, payment);
+		}
+
+		String key = storeKey(id, idempotencyKey);
+		Receipt receipt = idempotencyStore.get(key);
+		if (receipt != null) {
+			return receipt;
+		}
+
+		CompletableFuture<Receipt> attempt = new CompletableFuture<>();
+		CompletableFuture<Receipt> running = inFlight.putIfAbsent(key, attempt);
+		if (running != null) {
+			return await(running);
+		}
+		try {
+			receipt = idempotencyStore.get(key);
+			if (receipt == null) {
+				receipt = orderService.pay(id, payment, key);
+				idempotencyStore.put(key, receipt);
+			}
+			attempt.complete(receipt);
+			return receipt;
+		} catch (InsufficientPaymentException | OrderAlreadyPaidException | PaymentBacklogException
+				| RuntimeException e) {
+			attempt.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, attempt);
+		}
+	}
+
+	/**
+	 * The order id followed by the URL-safe base64 SHA-256 of the client's key.
+	 */
+	static String storeKey(Long id, String idempotencyKey) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256")
+					.digest(idempotencyKey.getBytes(StandardCharsets.UTF_8));
+			return id + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private Receipt await(CompletableFuture<Receipt> running)
+			throws InsufficientPaymentException, OrderAlreadyPaidException, PaymentBacklogException {
+		try {
+			return running.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof InsufficientPaymentException) {
+				throw (InsufficientPaymentException) e.getCause();
+			}
+			if (e.getCause() instanceof OrderAlreadyPaidException) {
+				throw (OrderAlreadyPaidException) e.getCause();
+			}
+			if (e.getCause() instanceof PaymentBacklogException) {
+				throw (PaymentBacklogException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package answer.king.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a catalogue import: how many rows went in and which were
+ * rejected. Only the first few rejections are kept, so a file that is wrong
+ * throughout doesn't produce an unbounded report.
+ */
+public class ImportResult {
+
+	private final int maxErrors;
+
+	private long imported;
+
+	private long rejected;
+
+	private final List<RowError> errors = new ArrayList<>();
+
+	public ImportResult(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	void imported(int count) {
+		imported += count;
+	}
+
+	void rejected(long row, String error) {
+		rejected++;
+		if (errors.size() < maxErrors) {
+			errors.add(new RowError(row, error));
+		}
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public List<RowError> getErrors() {
+		return errors;
+	}
+
+	public static class RowError {
+
+		private final long row;
+
+		private final String error;
+
+		public RowError(long row, String error) {
+			this.row = row;
+			this.error = error;
+		}
+
+		public long getRow() {
+			return row;
+		}
+
+		public String getError() {
+			return error;
+		}
+	}
+}
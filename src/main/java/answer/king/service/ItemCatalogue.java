@@ -0,0 +1,220 @@
+package answer.king.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import answer.king.repo.ItemRepository;
+import answer.king.view.ItemView;
+
+/**
+ * Read-through cache of the item catalogue. The whole catalogue is held as an
+ * immutable snapshot of item views that is swapped atomically, and dropped
+ * once a transaction that changed an item commits. It is always reloaded from
+ * the primary database, as a replica may not yet have the change that
+ * dropped it.
+ */
+@Component
+@ManagedResource(objectName = "answer.king:type=Cache,name=ItemCatalogue")
+public class ItemCatalogue {
+
+	@Autowired
+	private ItemRepository itemRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong();
+
+	private final AtomicLong misses = new AtomicLong();
+
+	public List<ItemView> getAll() {
+		return getSnapshot().getItems();
+	}
+
+	/**
+	 * The whole catalogue together with the version it was loaded at, for
+	 * callers that keep something built from it. A snapshot read while an
+	 * item change is being committed carries the version before the change.
+	 */
+	public Snapshot getSnapshot() {
+		Snapshot current = snapshot.get();
+		if (current != null) {
+			hits.incrementAndGet();
+			return current;
+		}
+		misses.incrementAndGet();
+		return load();
+	}
+
+	public ItemView findOne(Long itemId) {
+		Snapshot current = snapshot.get();
+		ItemView item = current == null ? null : current.itemsById.get(itemId);
+		if (item != null) {
+			hits.incrementAndGet();
+			return item;
+		}
+		misses.incrementAndGet();
+		if (current == null) {
+			item = load().itemsById.get(itemId);
+		}
+		if (item != null) {
+			return item;
+		}
+		List<ItemView> found = itemRepository.findViews(Collections.singleton(itemId));
+		return found.isEmpty() ? null : found.get(0);
+	}
+
+	/**
+	 * Looks up several items at once; any the snapshot doesn't hold are read
+	 * from the repository in a single query. Unknown ids are left out of the
+	 * result.
+	 */
+	public Map<Long, ItemView> findAll(Collection<Long> itemIds) {
+		Snapshot current = snapshot.get();
+		if (current == null) {
+			misses.incrementAndGet();
+			current = load();
+		} else {
+			hits.incrementAndGet();
+		}
+
+		Map<Long, ItemView> found = new HashMap<>();
+		List<Long> missing = new ArrayList<>();
+		for (Long itemId : itemIds) {
+			ItemView item = current.itemsById.get(itemId);
+			if (item != null) {
+				found.put(itemId, item);
+			} else {
+				missing.add(itemId);
+			}
+		}
+		if (!missing.isEmpty()) {
+			misses.incrementAndGet();
+			for (ItemView item : itemRepository.findViews(missing)) {
+				found.put(item.getId(), item);
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Drops the snapshot once the current transaction commits, or straight
+	 * away when there is no transaction.
+	 */
+	public void invalidate() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					evict();
+				}
+			});
+		} else {
+			evict();
+		}
+	}
+
+	@ManagedOperation
+	public void evict() {
+		generation.incrementAndGet();
+		snapshot.set(null);
+	}
+
+	/**
+	 * Goes up each time the catalogue is dropped, that is once per committed
+	 * item change.
+	 */
+	@ManagedAttribute
+	public long getVersion() {
+		return generation.get();
+	}
+
+	@ManagedAttribute
+	public long getHits() {
+		return hits.get();
+	}
+
+	@ManagedAttribute
+	public long getMisses() {
+		return misses.get();
+	}
+
+	@ManagedAttribute
+	public int getSize() {
+		Snapshot current = snapshot.get();
+		return current == null ? 0 : current.items.size();
+	}
+
+	private Snapshot load() {
+		long loadedGeneration = generation.get();
+		Snapshot loaded = new Snapshot(findAllViewsOnPrimary(), loadedGeneration);
+		if (snapshot.compareAndSet(null, loaded) && generation.get() != loadedGeneration) {
+			// an item changed while we were loading, so don't keep what we read
+			snapshot.compareAndSet(loaded, null);
+		}
+		return loaded;
+	}
+
+	/**
+	 * A read-only transaction is routed to the replica, so the catalogue is
+	 * read in a separate read-write transaction instead; any other caller is
+	 * already on the primary.
+	 */
+	private List<ItemView> findAllViewsOnPrimary() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return itemRepository.findAllViews();
+		}
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		return transactionTemplate.execute(status -> itemRepository.findAllViews());
+	}
+
+	public static class Snapshot {
+
+		private final List<ItemView> items;
+
+		private final Map<Long, ItemView> itemsById;
+
+		private final long version;
+
+		Snapshot(List<ItemView> loadedItems, long version) {
+			Map<Long, ItemView> byId = new LinkedHashMap<>();
+			for (ItemView item : loadedItems) {
+				byId.put(item.getId(), item);
+			}
+			this.items = Collections.unmodifiableList(new ArrayList<>(loadedItems));
+			this.itemsById = Collections.unmodifiableMap(byId);
+			this.version = version;
+		}
+
+		public List<ItemView> getItems() {
+			return items;
+		}
+
+		public long getVersion() {
+			return version;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package answer.king.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+
+import answer.king.model.Item;
+
+/**
+ * Imports items from a JSON array or a CSV file with a name,price header. The
+ * body is read one record at a time and saved in batches of
+ * answer.king.import.batch-size, each batch in a transaction of its own, so
+ * only one batch is ever held in memory. A row that can't be read or fails
+ * validation is reported and skipped; the rest of the import carries on.
+ */
+@Component
+public class ItemImporter {
+
+	@Value("${answer.king.import.batch-size:500}")
+	private int batchSize;
+
+	@Value("${answer.king.import.max-errors:1000}")
+	private int maxErrors;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private ItemValidator itemValidator;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final CsvMapper csvMapper = new CsvMapper();
+
+	public ImportResult importJson(InputStream json) throws IOException {
+		return importItems(objectMapper.readerFor(JsonNode.class).readValues(json));
+	}
+
+	public ImportResult importCsv(InputStream csv) throws IOException {
+		return importItems(csvMapper.readerFor(JsonNode.class)
+			.with(CsvSchema.emptySchema().withHeader())
+			.readValues(csv));
+	}
+
+	private ImportResult importItems(MappingIterator<JsonNode> records) throws IOException {
+		ImportResult result = new ImportResult(maxErrors);
+		List<Item> batch = new ArrayList<>(batchSize);
+		long row = 1;
+		try {
+			for (; records.hasNextValue(); row++) {
+				try {
+					batch.add(item(records.nextValue()));
+				} catch (InvalidItemException e) {
+					result.rejected(row, e.getMessage());
+				}
+				if (batch.size() == batchSize) {
+					save(batch, result);
+				}
+			}
+		} catch (JsonProcessingException e) {
+			// the stream can't be resynchronised after a syntax error, so stop here
+			result.rejected(row, "unreadable input: " + e.getOriginalMessage());
+		} finally {
+			records.close();
+		}
+		save(batch, result);
+		return result;
+	}
+
+	private Item item(JsonNode record) throws InvalidItemException {
+		Item item;
+		try {
+			item = objectMapper.treeToValue(record, Item.class);
+		} catch (JsonProcessingException e) {
+			throw new InvalidItemException("item could not be read: " + e.getOriginalMessage());
+		}
+		itemValidator.validate(item);
+		item.setId(null);
+		item.setVersion(null);
+		return item;
+	}
+
+	private void save(List<Item> batch, ImportResult result) {
+		if (!batch.isEmpty()) {
+			itemService.saveBatch(batch);
+			result.imported(batch.size());
+			batch.clear();
+		}
+	}
+}
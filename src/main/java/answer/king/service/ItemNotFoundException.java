@@ -0,0 +1,10 @@
+package answer.king.service;
+
+public class ItemNotFoundException extends Exception {
+
+	private static final long serialVersionUID = 6043209918537710174L;
+
+	public ItemNotFoundException(String message) {
+		super(message);
+	}
+}
@@ -1,17 +1,27 @@
 package answer.king.service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import answer.king.model.Item;
+import answer.king.model.Money;
+import answer.king.model.PriceChange;
 import answer.king.repo.ItemRepository;
+import answer.king.view.ItemView;
 
 @Service
-@Transactional(rollbackFor = InvalidItemException.class)
+@Transactional(rollbackFor = { InvalidItemException.class, ItemNotFoundException.class })
 public class ItemService {
 
 	@Autowired
@@ -20,19 +30,74 @@ public class ItemService {
 	@Autowired
 	private ItemValidator itemValidator;
 
-	public List<Item> getAll() {
-		return itemRepository.findAll();
+	@Autowired
+	private ItemCatalogue itemCatalogue;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Transactional(readOnly = true)
+	public List<ItemView> getAll() {
+		return itemCatalogue.getAll();
 	}
 
 	public Item save(Item item) throws InvalidItemException {
 		itemValidator.validate(item);
-		return itemRepository.save(item);
+		Item savedItem = itemRepository.save(item);
+		itemCatalogue.invalidate();
+		return savedItem;
 	}
 
-	public Item updatePrice(Long itemId, BigDecimal price) throws InvalidItemException {
+	public Item updatePrice(Long itemId, Money price) throws InvalidItemException, ItemNotFoundException {
 		Item item = itemRepository.findOne(itemId);
+		if (item == null) {
+			throw new ItemNotFoundException("item " + itemId + " does not exist");
+		}
 		item.setPrice(price);
 		itemValidator.validate(item);
-		return itemRepository.save(item);
+		Item savedItem = itemRepository.save(item);
+		itemCatalogue.invalidate();
+		return savedItem;
+	}
+
+	/**
+	 * Reprices many items in one transaction: the items are read with a single
+	 * query and their updates go out in JDBC batches when it commits. Every
+	 * change is validated before any is applied, ids that match no item are
+	 * reported rather than failing the lot, and the catalogue is invalidated
+	 * once for the whole change.
+	 */
+	public RepriceResult updatePrices(List<PriceChange> priceChanges) throws InvalidItemException {
+		Map<Long, Money> prices = new LinkedHashMap<>();
+		for (PriceChange priceChange : priceChanges) {
+			if (priceChange.getItemId() == null) {
+				throw new InvalidItemException("item id must be provided");
+			}
+			prices.put(priceChange.getItemId(), priceChange.getPrice());
+		}
+
+		Set<Long> missingItemIds = new LinkedHashSet<>(prices.keySet());
+		List<Item> items = itemRepository.findAll(prices.keySet());
+		for (Item item : items) {
+			item.setPrice(prices.get(item.getId()));
+			itemValidator.validate(item);
+			missingItemIds.remove(item.getId());
+		}
+		itemRepository.save(items);
+		itemCatalogue.invalidate();
+		return new RepriceResult(items.size(), new ArrayList<>(missingItemIds));
+	}
+
+	/**
+	 * Inserts items that have already been validated, as one transaction. The
+	 * persistence context is flushed and cleared afterwards, so that a long
+	 * import running under open-session-in-view doesn't keep every item it has
+	 * saved.
+	 */
+	public void saveBatch(List<Item> items) {
+		itemRepository.save(items);
+		entityManager.flush();
+		entityManager.clear();
+		itemCatalogue.invalidate();
 	}
 }
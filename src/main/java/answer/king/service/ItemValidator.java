@@ -2,11 +2,10 @@ package answer.king.service;
 
 import static org.springframework.util.StringUtils.isEmpty;
 
-import java.math.BigDecimal;
-
 import org.springframework.stereotype.Component;
 
 import answer.king.model.Item;
+import answer.king.model.Money;
 
 @Component
 public class ItemValidator {
@@ -25,11 +24,11 @@ public class ItemValidator {
 		}
 	}
 
-	private void validatePrice(BigDecimal price) throws InvalidItemException {
+	private void validatePrice(Money price) throws InvalidItemException {
 		if (price == null) {
 			throw new InvalidItemException("item price must be provided");
 		}
-		if (price.compareTo(BigDecimal.ZERO) < 0) {
+		if (price.isNegative()) {
 			throw new InvalidItemException("item price cannot be negative");
 		}
 	}
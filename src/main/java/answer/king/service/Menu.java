@@ -0,0 +1,44 @@
+package answer.king.service;
+
+/**
+ * The item catalogue as it is served to tills: serialised once, both plain and
+ * gzip-compressed, with a strong ETag for each encoding taken from a digest
+ * of the JSON.
+ */
+public class Menu {
+
+	private final long version;
+
+	private final String digest;
+
+	private final byte[] json;
+
+	private final byte[] gzip;
+
+	public Menu(long version, String digest, byte[] json, byte[] gzip) {
+		this.version = version;
+		this.digest = digest;
+		this.json = json;
+		this.gzip = gzip;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public String getETag() {
+		return "\"menu-" + digest + "\"";
+	}
+
+	public String getGzipETag() {
+		return "\"menu-" + digest + "-gzip\"";
+	}
+
+	public byte[] getJson() {
+		return json;
+	}
+
+	public byte[] getGzip() {
+		return gzip;
+	}
+}
@@ -0,0 +1,61 @@
+package answer.king.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Holds the serialised menu for the current catalogue version. The menu is
+ * rebuilt only after an item change has bumped the version, so polls in
+ * between touch neither the database nor Jackson. This is deliberately not
+ * transactional: a poll answered from memory shouldn't take a connection.
+ */
+@Component
+public class MenuCache {
+
+	@Autowired
+	private ItemCatalogue itemCatalogue;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private final AtomicReference<Menu> menu = new AtomicReference<>();
+
+	public Menu getMenu() {
+		long version = itemCatalogue.getVersion();
+		Menu current = menu.get();
+		if (current != null && current.getVersion() == version) {
+			return current;
+		}
+		// tagged with the snapshot's own version, so a snapshot loaded before a
+		// change still being committed is rebuilt on the next poll
+		Menu built = build(itemCatalogue.getSnapshot());
+		menu.set(built);
+		return built;
+	}
+
+	private Menu build(ItemCatalogue.Snapshot snapshot) {
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(snapshot.getItems());
+			return new Menu(snapshot.getVersion(), DigestUtils.md5DigestAsHex(json), json, gzip(json));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+		try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+			out.write(bytes);
+		}
+		return compressed.toByteArray();
+	}
+}
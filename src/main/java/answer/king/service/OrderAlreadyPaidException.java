@@ -0,0 +1,10 @@
+package answer.king.service;
+
+public class OrderAlreadyPaidException extends Exception {
+
+	private static final long serialVersionUID = 2183365462105539624L;
+
+	public OrderAlreadyPaidException(String message) {
+		super(message);
+	}
+}
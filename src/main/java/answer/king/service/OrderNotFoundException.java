@@ -0,0 +1,10 @@
+package answer.king.service;
+
+public class OrderNotFoundException extends Exception {
+
+	private static final long serialVersionUID = 1172529093540854420L;
+
+	public OrderNotFoundException(String message) {
+		super(message);
+	}
+}
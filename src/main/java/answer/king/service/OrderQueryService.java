@@ -0,0 +1,65 @@
+package answer.king.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import answer.king.repo.OrderRepository;
+import answer.king.view.LineItemView;
+import answer.king.view.OrderLineRow;
+import answer.king.view.OrderView;
+
+/**
+ * Read side of orders. Orders are listed from a projection of just the
+ * columns the listing shows, so no entities are loaded or dirty checked.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderQueryService {
+
+	static final int DEFAULT_PAGE_SIZE = 100;
+
+	static final int MAX_PAGE_SIZE = 1000;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	public List<OrderView> getPage(Long after, Integer limit) {
+		List<Long> ids = orderRepository.findIdsAfter(after == null ? 0L : after, new PageRequest(0, pageSize(limit)));
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+		return orders(orderRepository.findLineRows(ids));
+	}
+
+	private int pageSize(Integer limit) {
+		if (limit == null) {
+			return DEFAULT_PAGE_SIZE;
+		}
+		return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+	}
+
+	/**
+	 * Folds the rows, which arrive sorted by order id, into one view per order.
+	 */
+	private static List<OrderView> orders(List<OrderLineRow> rows) {
+		List<OrderView> orders = new ArrayList<>();
+		OrderView order = null;
+		for (OrderLineRow row : rows) {
+			if (order == null || !order.getId().equals(row.getOrderId())) {
+				order = new OrderView(row.getOrderId(), row.getPaid(), new ArrayList<>());
+				orders.add(order);
+			}
+			if (row.getLineItemId() != null) {
+				order.getLineItems().add(
+						new LineItemView(row.getLineItemId(), row.getName(), row.getPrice(), row.getQuantity()));
+			}
+		}
+		return orders;
+	}
+}
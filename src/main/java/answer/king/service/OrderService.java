@@ -1,24 +1,35 @@
 package answer.king.service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import answer.king.model.Item;
+import answer.king.event.OrderEvent;
+import answer.king.event.PaymentEventPipeline;
+import answer.king.model.BasketItem;
 import answer.king.model.LineItem;
+import answer.king.model.Money;
 import answer.king.model.Order;
 import answer.king.model.Receipt;
+import answer.king.model.ReceiptLine;
 import answer.king.repo.ItemRepository;
 import answer.king.repo.LineItemRepository;
 import answer.king.repo.OrderRepository;
 import answer.king.repo.ReceiptRepository;
+import answer.king.view.ItemView;
 
 @Service
-@Transactional(rollbackFor = InsufficientPaymentException.class)
+@Transactional(rollbackFor = { InsufficientPaymentException.class, InvalidItemException.class,
+		OrderAlreadyPaidException.class, OrderNotFoundException.class, PaymentBacklogException.class })
 public class OrderService {
 
 	@Autowired
@@ -33,69 +44,206 @@ public class OrderService {
 	@Autowired
 	private LineItemRepository lineItemRepository;
 
-	public List<Order> getAll() {
-		return orderRepository.findAll();
-	}
+	@Autowired
+	private ItemCatalogue itemCatalogue;
+
+	@Autowired
+	private IdempotencyStore idempotencyStore;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private PaymentEventPipeline paymentEventPipeline;
 
 	public Order save(Order order) {
-		return orderRepository.save(order);
+		boolean created = order.getId() == null;
+		Order savedOrder = orderRepository.save(order);
+		if (created) {
+			eventPublisher.publishEvent(OrderEvent.created(savedOrder.getId()));
+		}
+		return savedOrder;
+	}
+
+	/**
+	 * Adds to the order with in-place updates of the line and the order total,
+	 * so a repeated scan neither loads nor dirty checks either of them. The
+	 * amount added comes from the catalogue price already in hand, and is
+	 * published as is rather than read back. The total is only added to while
+	 * the order is unpaid, so an item can't slip in after the receipt; a new
+	 * line is written only once the total has shown the order exists.
+	 */
+	@RetryOnConflict
+	public void addItem(Long id, Long itemId, Integer quantity)
+			throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
+		ItemView item = itemCatalogue.findOne(itemId);
+		if (item == null) {
+			throw new InvalidItemException("item " + itemId + " does not exist");
+		}
+		long price = item.getPrice().getMinorUnits();
+		boolean newLine = false;
+		if (lineItemRepository.addQuantity(id, itemId, price, quantity) == 0) {
+			Long linePrice = lineItemRepository.findPrice(id, itemId);
+			if (linePrice == null) {
+				newLine = true;
+			} else {
+				// the line was added before the item was repriced and keeps its price
+				price = linePrice;
+				lineItemRepository.addQuantity(id, itemId, price, quantity);
+			}
+		}
+		long amount = price * quantity;
+		if (orderRepository.addToTotal(id, amount) == 0) {
+			validateOrderExists(orderRepository.exists(id), id);
+			throw new OrderAlreadyPaidException("order already paid");
+		}
+		if (newLine) {
+			lineItemRepository.save(lineItem(item, orderRepository.getOne(id), quantity));
+		}
+		eventPublisher.publishEvent(OrderEvent.itemAdded(id, itemId, quantity, amount));
 	}
 
-	public void addItem(Long id, Long itemId, Integer quantity) {
+	/**
+	 * Adds a whole basket to the order in one go: the items are resolved
+	 * together, merged against the order's existing lines for those items and
+	 * written as a single batch. Each item is published as added, the same as
+	 * a single scan.
+	 */
+	@RetryOnConflict
+	public void addItems(Long id, List<BasketItem> basket)
+			throws InvalidItemException, OrderAlreadyPaidException, OrderNotFoundException {
+		Map<Long, Integer> quantities = quantitiesByItemId(basket);
+		Map<Long, ItemView> items = findItems(quantities.keySet());
+
 		Order order = orderRepository.findOne(id);
+		validateOrderExists(order != null, id);
+		validateOrderIsNotPaid(order);
+		Map<Long, LineItem> existingLineItems = lineItemsByItemId(id, quantities.keySet());
 
-		Optional<LineItem> lineItem = findExistingLineItem(order, itemId);
-		if (lineItem.isPresent()) {
-			addQuantityToLineItem(lineItem.get(), quantity);
-		} else {
-			addNewLineItemToOrder(order, itemId, quantity);
+		Map<Long, LineItem> changedLineItems = new LinkedHashMap<>();
+		List<OrderEvent> events = new ArrayList<>(quantities.size());
+		long total = order.getTotal();
+		for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+			Integer quantity = entry.getValue();
+			LineItem lineItem = existingLineItems.get(entry.getKey());
+			if (lineItem == null) {
+				lineItem = lineItem(items.get(entry.getKey()), order, quantity);
+				attachToOrder(order, lineItem);
+			} else {
+				lineItem.setQuantity(lineItem.getQuantity() + quantity);
+			}
+			changedLineItems.put(entry.getKey(), lineItem);
+			long amount = lineItem.getPrice().getMinorUnits() * quantity;
+			events.add(OrderEvent.itemAdded(id, entry.getKey(), quantity, amount));
+			total += amount;
 		}
-	}
+		order.setTotal(total);
 
-	private Optional<LineItem> findExistingLineItem(Order order, Long itemId) {
-		return order.getLineItems().stream().filter(lineItem -> lineItem.getItem().getId().equals(itemId)).findFirst();
+		lineItemRepository.save(new ArrayList<>(changedLineItems.values()));
+		orderRepository.save(order);
+		for (OrderEvent event : events) {
+			eventPublisher.publishEvent(event);
+		}
 	}
 
-	private void addQuantityToLineItem(LineItem lineItem, Integer quantity) {
-		lineItem.setQuantity(lineItem.getQuantity() + quantity);
-		lineItemRepository.save(lineItem);
+	private Map<Long, Integer> quantitiesByItemId(List<BasketItem> basket) throws InvalidItemException {
+		Map<Long, Integer> quantities = new LinkedHashMap<>();
+		for (BasketItem basketItem : basket) {
+			if (basketItem.getItemId() == null) {
+				throw new InvalidItemException("item id must be provided");
+			}
+			if (basketItem.getQuantity() == null || basketItem.getQuantity() < 1) {
+				throw new InvalidItemException("item quantity must be positive");
+			}
+			quantities.merge(basketItem.getItemId(), basketItem.getQuantity(), Integer::sum);
+		}
+		return quantities;
 	}
 
-	private void addNewLineItemToOrder(Order order, Long itemId, Integer quantity) {
-		Item item = itemRepository.findOne(itemId);
+	private Map<Long, ItemView> findItems(Set<Long> itemIds) throws InvalidItemException {
+		Map<Long, ItemView> items = itemCatalogue.findAll(itemIds);
+		for (Long itemId : itemIds) {
+			if (!items.containsKey(itemId)) {
+				throw new InvalidItemException("item " + itemId + " does not exist");
+			}
+		}
+		return items;
+	}
 
-		LineItem lineItem = lineItemRepository.save(lineItem(item, order, quantity));
+	private Map<Long, LineItem> lineItemsByItemId(Long orderId, Set<Long> itemIds) {
+		Map<Long, LineItem> lineItems = new HashMap<>();
+		for (LineItem lineItem : lineItemRepository.findByOrderIdAndItemIds(orderId, itemIds)) {
+			lineItems.put(lineItem.getItem().getId(), lineItem);
+		}
+		return lineItems;
+	}
 
-		order.getLineItems().add(lineItem);
-		orderRepository.save(order);
+	/**
+	 * Keeps the order's lines in step only if they have already been loaded;
+	 * adding to a lazy collection would read every line of the order.
+	 */
+	private void attachToOrder(Order order, LineItem lineItem) {
+		if (Hibernate.isInitialized(order.getLineItems())) {
+			order.getLineItems().add(lineItem);
+		}
 	}
 
-	private LineItem lineItem(Item item, Order order, Integer quantity) {
+	private LineItem lineItem(ItemView item, Order order, Integer quantity) {
 		LineItem lineItem = new LineItem();
 		lineItem.setName(item.getName());
 		lineItem.setPrice(item.getPrice());
 		lineItem.setOrder(order);
-		lineItem.setItem(item);
+		lineItem.setItem(itemRepository.getOne(item.getId()));
 		lineItem.setQuantity(quantity);
 		return lineItem;
 	}
 
-	public Receipt pay(Long id, BigDecimal payment) throws InsufficientPaymentException {
+	@RetryOnConflict
+	public Receipt pay(Long id, Money payment)
+			throws InsufficientPaymentException, OrderAlreadyPaidException, PaymentBacklogException {
+		return pay(id, payment, null);
+	}
+
+	/**
+	 * Pays the order and, given an idempotency key, records the key in the
+	 * same transaction as the receipt, so a paid order never loses its key.
+	 * While the payment events are backed up the order is not paid at all.
+	 */
+	@RetryOnConflict
+	public Receipt pay(Long id, Money payment, String idempotencyKey)
+			throws InsufficientPaymentException, OrderAlreadyPaidException, PaymentBacklogException {
+		if (paymentEventPipeline.isBackedUp()) {
+			throw new PaymentBacklogException("payments are backed up, retry shortly");
+		}
 		Order order = orderRepository.findOne(id);
+		validateOrderIsNotPaid(order);
 		validatePaymentIsSufficientForOrder(payment, order);
 		updateOrderAsPaid(order);
-		return generateReceiptForPaymentOfOrder(payment, order);
+		Receipt receipt = generateReceiptForPaymentOfOrder(payment, order);
+		if (idempotencyKey != null) {
+			idempotencyStore.record(idempotencyKey, receipt);
+		}
+		eventPublisher.publishEvent(OrderEvent.paid(order.getId(), order.getTotal(), receipt.getId()));
+		return receipt;
 	}
 
-	private void validatePaymentIsSufficientForOrder(BigDecimal payment, Order order)
-			throws InsufficientPaymentException {
-		if (payment.compareTo(totalOrderPrice(order)) < 0) {
-			throw new InsufficientPaymentException("insufficient payment");
+	private void validateOrderExists(boolean exists, Long id) throws OrderNotFoundException {
+		if (!exists) {
+			throw new OrderNotFoundException("order " + id + " does not exist");
 		}
 	}
 
-	private BigDecimal totalOrderPrice(Order order) {
-		return order.getLineItems().stream().map(LineItem::getPrice).reduce(BigDecimal.ZERO, BigDecimal::add);
+	private void validateOrderIsNotPaid(Order order) throws OrderAlreadyPaidException {
+		if (Boolean.TRUE.equals(order.getPaid())) {
+			throw new OrderAlreadyPaidException("order already paid");
+		}
+	}
+
+	private void validatePaymentIsSufficientForOrder(Money payment, Order order)
+			throws InsufficientPaymentException {
+		if (payment.isLessThan(order.getTotal())) {
+			throw new InsufficientPaymentException("insufficient payment");
+		}
 	}
 
 	private void updateOrderAsPaid(Order order) {
@@ -103,15 +251,33 @@ public class OrderService {
 		orderRepository.save(order);
 	}
 
-	private Receipt generateReceiptForPaymentOfOrder(BigDecimal payment, Order order) {
+	private Receipt generateReceiptForPaymentOfOrder(Money payment, Order order) {
 		Receipt receipt = receiptForPaymentOfOrder(payment, order);
 		return receiptRepository.save(receipt);
 	}
 
-	private Receipt receiptForPaymentOfOrder(BigDecimal payment, Order order) {
+	private Receipt receiptForPaymentOfOrder(Money payment, Order order) {
+		Money total = Money.ofMinorUnits(order.getTotal());
+
 		Receipt receipt = new Receipt();
+		receipt.setOrderId(order.getId());
 		receipt.setPayment(payment);
-		receipt.setOrder(order);
+		receipt.setTotal(total);
+		receipt.setChange(payment.minus(total));
+		receipt.setLineItems(receiptLines(order));
 		return receipt;
 	}
+
+	private List<ReceiptLine> receiptLines(Order order) {
+		List<ReceiptLine> receiptLines = new ArrayList<>(order.getLineItems().size());
+		for (LineItem lineItem : order.getLineItems()) {
+			ReceiptLine receiptLine = new ReceiptLine();
+			receiptLine.setId(lineItem.getId());
+			receiptLine.setName(lineItem.getName());
+			receiptLine.setPrice(lineItem.getPrice());
+			receiptLine.setQuantity(lineItem.getQuantity());
+			receiptLines.add(receiptLine);
+		}
+		return receiptLines;
+	}
 }
\ No newline at end of file
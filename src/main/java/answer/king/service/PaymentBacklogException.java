@@ -0,0 +1,10 @@
+package answer.king.service;
+
+public class PaymentBacklogException extends Exception {
+
+	private static final long serialVersionUID = 3676238748550625306L;
+
+	public PaymentBacklogException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,24 @@
+package answer.king.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import answer.king.repo.ReceiptRepository;
+import answer.king.view.ReceiptView;
+
+@Service
+@Transactional(readOnly = true)
+public class ReceiptService {
+
+	@Autowired
+	private ReceiptRepository receiptRepository;
+
+	public ReceiptView getReceipt(Long id) {
+		return receiptRepository.findViewById(id);
+	}
+
+	public ReceiptView getReceiptForOrder(Long orderId) {
+		return receiptRepository.findViewByOrderId(orderId);
+	}
+}
@@ -0,0 +1,27 @@
+package answer.king.service;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk price change: how many items were repriced, and the ids
+ * that matched no item and were left out.
+ */
+public class RepriceResult {
+
+	private final int updated;
+
+	private final List<Long> missingItemIds;
+
+	public RepriceResult(int updated, List<Long> missingItemIds) {
+		this.updated = updated;
+		this.missingItemIds = missingItemIds;
+	}
+
+	public int getUpdated() {
+		return updated;
+	}
+
+	public List<Long> getMissingItemIds() {
+		return missingItemIds;
+	}
+}
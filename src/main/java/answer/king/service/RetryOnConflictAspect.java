@@ -0,0 +1,61 @@
+package answer.king.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retries {@link RetryOnConflict} methods a bounded number of times when they
+ * fail with an optimistic locking or lock acquisition conflict, backing off for
+ * a random, growing interval between attempts.
+ */
+@Aspect
+@Component
+public class RetryOnConflictAspect implements Ordered {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RetryOnConflictAspect.class);
+
+	@Value("${answer.king.retry.max-attempts:5}")
+	private int maxAttempts;
+
+	@Value("${answer.king.retry.backoff-millis:5}")
+	private long backoffMillis;
+
+	@Around("@annotation(answer.king.service.RetryOnConflict)")
+	public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return joinPoint.proceed();
+			} catch (ConcurrencyFailureException e) {
+				if (attempt >= maxAttempts) {
+					throw e;
+				}
+				LOGGER.debug("Conflict in {} on attempt {}, retrying", joinPoint.getSignature(), attempt, e);
+				backOff(attempt);
+			}
+		}
+	}
+
+	private void backOff(int attempt) throws InterruptedException {
+		if (backoffMillis > 0) {
+			Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis * attempt) + 1);
+		}
+	}
+
+	/**
+	 * Sits outside the transaction interceptor so that every attempt runs in a
+	 * transaction of its own.
+	 */
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 1;
+	}
+}
@@ -0,0 +1,93 @@
+package answer.king.service;
+
+public class SqlStatistics {
+
+	private final boolean enabled;
+
+	private final long since;
+
+	private final long statementCount;
+
+	private final long queryCount;
+
+	private final long slowestQueryTime;
+
+	private final String slowestQuery;
+
+	private final long entityLoadCount;
+
+	private final long entityInsertCount;
+
+	private final long entityUpdateCount;
+
+	private final long collectionFetchCount;
+
+	private final long flushCount;
+
+	private final long transactionCount;
+
+	public SqlStatistics(boolean enabled, long since, long statementCount, long queryCount, long slowestQueryTime,
+			String slowestQuery, long entityLoadCount, long entityInsertCount, long entityUpdateCount,
+			long collectionFetchCount, long flushCount, long transactionCount) {
+		this.enabled = enabled;
+		this.since = since;
+		this.statementCount = statementCount;
+		this.queryCount = queryCount;
+		this.slowestQueryTime = slowestQueryTime;
+		this.slowestQuery = slowestQuery;
+		this.entityLoadCount = entityLoadCount;
+		this.entityInsertCount = entityInsertCount;
+		this.entityUpdateCount = entityUpdateCount;
+		this.collectionFetchCount = collectionFetchCount;
+		this.flushCount = flushCount;
+		this.transactionCount = transactionCount;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public long getSince() {
+		return since;
+	}
+
+	public long getStatementCount() {
+		return statementCount;
+	}
+
+	public long getQueryCount() {
+		return queryCount;
+	}
+
+	public long getSlowestQueryTime() {
+		return slowestQueryTime;
+	}
+
+	public String getSlowestQuery() {
+		return slowestQuery;
+	}
+
+	public long getEntityLoadCount() {
+		return entityLoadCount;
+	}
+
+	public long getEntityInsertCount() {
+		return entityInsertCount;
+	}
+
+	public long getEntityUpdateCount() {
+		return entityUpdateCount;
+	}
+
+	public long getCollectionFetchCount() {
+		return collectionFetchCount;
+	}
+
+	public long getFlushCount() {
+		return flushCount;
+	}
+
+	public long getTransactionCount() {
+		return transactionCount;
+	}
+}
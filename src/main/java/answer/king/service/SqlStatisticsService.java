@@ -0,0 +1,49 @@
+package answer.king.service;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reads Hibernate's statement statistics. They are only gathered when
+ * hibernate.generate_statistics is on, as it is in the production profile.
+ * Resetting them is a management operation, so it is only offered over JMX.
+ */
+@Service
+@ManagedResource(objectName = "answer.king:type=Statistics,name=Sql")
+public class SqlStatisticsService {
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	public SqlStatistics getStatistics() {
+		Statistics statistics = statistics();
+		return new SqlStatistics(
+			statistics.isStatisticsEnabled(),
+			statistics.getStartTime(),
+			statistics.getPrepareStatementCount(),
+			statistics.getQueryExecutionCount(),
+			statistics.getQueryExecutionMaxTime(),
+			statistics.getQueryExecutionMaxTimeQueryString(),
+			statistics.getEntityLoadCount(),
+			statistics.getEntityInsertCount(),
+			statistics.getEntityUpdateCount(),
+			statistics.getCollectionFetchCount(),
+			statistics.getFlushCount(),
+			statistics.getTransactionCount());
+	}
+
+	@ManagedOperation
+	public void reset() {
+		statistics().clear();
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+}
@@ -0,0 +1,33 @@
+package answer.king.view;
+
+import answer.king.model.Money;
+
+/**
+ * An item as shown on the menu.
+ */
+public class ItemView {
+
+	private final Long id;
+
+	private final String name;
+
+	private final Money price;
+
+	public ItemView(Long id, String name, Money price) {
+		this.id = id;
+		this.name = name;
+		this.price = price;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Money getPrice() {
+		return price;
+	}
+}
@@ -0,0 +1,37 @@
+package answer.king.view;
+
+import answer.king.model.Money;
+
+public class LineItemView {
+
+	private final Long id;
+
+	private final String name;
+
+	private final Money price;
+
+	private final Integer quantity;
+
+	public LineItemView(Long id, String name, Money price, Integer quantity) {
+		this.id = id;
+		this.name = name;
+		this.price = price;
+		this.quantity = quantity;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Money getPrice() {
+		return price;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+}
@@ -0,0 +1,55 @@
+package answer.king.view;
+
+import answer.king.model.Money;
+
+/**
+ * One row of the order listing query: an order joined to one of its lines.
+ * The line columns are null for an order with no lines.
+ */
+public class OrderLineRow {
+
+	private final Long orderId;
+
+	private final Boolean paid;
+
+	private final Long lineItemId;
+
+	private final String name;
+
+	private final Money price;
+
+	private final Integer quantity;
+
+	public OrderLineRow(Long orderId, Boolean paid, Long lineItemId, String name, Money price, Integer quantity) {
+		this.orderId = orderId;
+		this.paid = paid;
+		this.lineItemId = lineItemId;
+		this.name = name;
+		this.price = price;
+		this.quantity = quantity;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public Boolean getPaid() {
+		return paid;
+	}
+
+	public Long getLineItemId() {
+		return lineItemId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Money getPrice() {
+		return price;
+	}
+
+	public Integer getQuantity() {
+		return quantity;
+	}
+}
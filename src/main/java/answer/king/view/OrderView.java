@@ -0,0 +1,33 @@
+package answer.king.view;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class OrderView {
+
+	private final Long id;
+
+	private final Boolean paid;
+
+	@JsonProperty("items")
+	private final List<LineItemView> lineItems;
+
+	public OrderView(Long id, Boolean paid, List<LineItemView> lineItems) {
+		this.id = id;
+		this.paid = paid;
+		this.lineItems = lineItems;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Boolean getPaid() {
+		return paid;
+	}
+
+	public List<LineItemView> getLineItems() {
+		return lineItems;
+	}
+}
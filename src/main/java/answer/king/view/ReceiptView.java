@@ -0,0 +1,57 @@
+package answer.king.view;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import answer.king.model.Money;
+import answer.king.model.ReceiptLine;
+
+public class ReceiptView {
+
+	private final Long id;
+
+	private final Long orderId;
+
+	private final Money payment;
+
+	private final Money total;
+
+	private final Money change;
+
+	@JsonProperty("items")
+	private final List<ReceiptLine> lineItems;
+
+	public ReceiptView(Long id, Long orderId, Money payment, Money total, Money change, List<ReceiptLine> lineItems) {
+		this.id = id;
+		this.orderId = orderId;
+		this.payment = payment;
+		this.total = total;
+		this.change = change;
+		this.lineItems = lineItems;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getOrderId() {
+		return orderId;
+	}
+
+	public Money getPayment() {
+		return payment;
+	}
+
+	public Money getTotal() {
+		return total;
+	}
+
+	public Money getChange() {
+		return change;
+	}
+
+	public List<ReceiptLine> getLineItems() {
+		return lineItems;
+	}
+}
@@ -0,0 +1,75 @@
+package answer.king.web;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import answer.king.web.AdmissionControl.Priority;
+
+/**
+ * Concurrency limit that adapts to observed latency, AIMD style. A request
+ * that completes within the target latency while the limit is in use
+ * raises the limit by one. A slow or failed request cuts the limit by the
+ * backoff ratio. The limit stays between the configured minimum and maximum.
+ */
+@ManagedResource(objectName = "answer.king:type=Limiter,name=OrderWrites")
+public class AdaptiveConcurrencyLimiter {
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final long targetLatencyNanos;
+
+	private final double backoffRatio;
+
+	private double limit;
+
+	private int inFlight;
+
+	private long rejected;
+
+	public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long targetLatencyMillis,
+			double backoffRatio) {
+		this.limit = initialLimit;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis);
+		this.backoffRatio = backoffRatio;
+	}
+
+	public synchronized boolean tryAcquire(Priority priority) {
+		if (inFlight >= Math.max(1, (int) (limit * priority.getShare()))) {
+			rejected++;
+			return false;
+		}
+		inFlight++;
+		return true;
+	}
+
+	public synchronized void release(long latencyNanos, boolean succeeded) {
+		boolean limitInUse = inFlight * 2 >= (int) limit;
+		inFlight--;
+		if (!succeeded || latencyNanos > targetLatencyNanos) {
+			limit = Math.max(minLimit, limit * backoffRatio);
+		} else if (limitInUse) {
+			limit = Math.min(maxLimit, limit + 1);
+		}
+	}
+
+	@ManagedAttribute
+	public synchronized int getLimit() {
+		return (int) limit;
+	}
+
+	@ManagedAttribute
+	public synchronized int getInFlight() {
+		return inFlight;
+	}
+
+	@ManagedAttribute
+	public synchronized long getRejected() {
+		return rejected;
+	}
+}
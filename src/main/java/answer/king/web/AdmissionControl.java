@@ -0,0 +1,38 @@
+package answer.king.web;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Puts a request handler behind the {@link AdaptiveConcurrencyLimiter}. A
+ * request that finds no room at its priority is turned away with a 503.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionControl {
+
+	Priority value();
+
+	/**
+	 * How much of the current limit requests of each priority may fill. Lower
+	 * priorities are shed first, so a payment still gets in when new orders
+	 * are already being refused.
+	 */
+	enum Priority {
+		LOW(0.5), NORMAL(0.8), HIGH(1.0);
+
+		private final double share;
+
+		Priority(double share) {
+			this.share = share;
+		}
+
+		public double getShare() {
+			return share;
+		}
+	}
+}
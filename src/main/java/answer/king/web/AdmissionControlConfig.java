@@ -0,0 +1,36 @@
+package answer.king.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+@Configuration
+public class AdmissionControlConfig extends WebMvcConfigurerAdapter {
+
+	@Value("${answer.king.admission.initial-limit:20}")
+	private int initialLimit;
+
+	@Value("${answer.king.admission.min-limit:4}")
+	private int minLimit;
+
+	@Value("${answer.king.admission.max-limit:200}")
+	private int maxLimit;
+
+	@Value("${answer.king.admission.target-latency-millis:250}")
+	private long targetLatencyMillis;
+
+	@Value("${answer.king.admission.backoff-ratio:0.9}")
+	private double backoffRatio;
+
+	@Bean
+	public AdaptiveConcurrencyLimiter orderWriteLimiter() {
+		return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, targetLatencyMillis, backoffRatio);
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new AdmissionControlInterceptor(orderWriteLimiter()));
+	}
+}
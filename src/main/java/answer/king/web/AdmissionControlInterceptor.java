@@ -0,0 +1,71 @@
+package answer.king.web;
+
+import java.io.IOException;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Admits {@link AdmissionControl} requests through the limiter and reports
+ * how long each one took once its response is complete. A refused request
+ * fails fast with a 503 and a Retry-After header instead of queueing behind
+ * the database. An async request is admitted once, on its first dispatch, and
+ * released when it completes.
+ */
+public class AdmissionControlInterceptor extends HandlerInterceptorAdapter {
+
+	private static final String START_NANOS = AdmissionControlInterceptor.class.getName() + ".START_NANOS";
+
+	private static final String RETRY_AFTER_SECONDS = "1";
+
+	private final AdaptiveConcurrencyLimiter limiter;
+
+	public AdmissionControlInterceptor(AdaptiveConcurrencyLimiter limiter) {
+		this.limiter = limiter;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+			throws IOException {
+		if (request.getAttribute(START_NANOS) != null) {
+			return true;
+		}
+		AdmissionControl admissionControl = admissionControlOf(handler);
+		if (admissionControl == null) {
+			return true;
+		}
+		if (!limiter.tryAcquire(admissionControl.value())) {
+			response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+			response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			response.getWriter().write("{\"error\":\"too busy, retry shortly\"}");
+			return false;
+		}
+		request.setAttribute(START_NANOS, System.nanoTime());
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		Long startNanos = (Long) request.getAttribute(START_NANOS);
+		if (startNanos != null) {
+			request.removeAttribute(START_NANOS);
+			boolean succeeded = ex == null && response.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value();
+			limiter.release(System.nanoTime() - startNanos, succeeded);
+		}
+	}
+
+	private static AdmissionControl admissionControlOf(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			return ((HandlerMethod) handler).getMethodAnnotation(AdmissionControl.class);
+		}
+		return null;
+	}
+}
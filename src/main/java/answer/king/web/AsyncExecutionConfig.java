@@ -0,0 +1,63 @@
+package answer.king.web;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.WebMvcRegistrations;
+import org.springframework.boot.autoconfigure.web.WebMvcRegistrationsAdapter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+/**
+ * Opt-in mode, enabled by answer.king.async.enabled, in which item and order
+ * requests run as Spring MVC async requests on a bounded executor instead of
+ * the container thread. By default the executor has one thread per pooled
+ * connection, so work that can't get a connection waits in a bounded queue
+ * instead of holding a Tomcat thread.
+ */
+@Configuration
+@ConditionalOnProperty("answer.king.async.enabled")
+public class AsyncExecutionConfig extends WebMvcConfigurerAdapter {
+
+	@Value("${answer.king.async.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}")
+	private int maxConcurrency;
+
+	@Value("${answer.king.async.queue-capacity:200}")
+	private int queueCapacity;
+
+	@Value("${answer.king.async.timeout-millis:30000}")
+	private long timeoutMillis;
+
+	/**
+	 * The queue is left unbounded here, as the handler adapter admits no more
+	 * than the executor's threads plus queue-capacity requests at a time.
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor requestExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(maxConcurrency);
+		executor.setMaxPoolSize(maxConcurrency);
+		executor.setThreadNamePrefix("request-");
+		return executor;
+	}
+
+	@Bean
+	public WebMvcRegistrations asyncExecutionRegistrations() {
+		return new WebMvcRegistrationsAdapter() {
+
+			@Override
+			public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+				return new AsyncExecutionHandlerAdapter(maxConcurrency + queueCapacity, "/item", "/order");
+			}
+		};
+	}
+
+	@Override
+	public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(requestExecutor());
+		configurer.setDefaultTimeout(timeoutMillis);
+	}
+}
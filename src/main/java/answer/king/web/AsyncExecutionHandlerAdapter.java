@@ -0,0 +1,162 @@
+package answer.king.web;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+/**
+ * Runs the handlers of controllers mapped under the given paths as Spring MVC
+ * async requests. Arguments are resolved on the container thread as usual;
+ * the handler itself is returned to Spring as a Callable, so it runs on the
+ * configured async executor. On the async dispatch the handler method hands
+ * back that result, or throws its exception, in place of being invoked again,
+ * so it is rendered exactly as a synchronous one would be, with the method's
+ * own return type and exception handlers. At most maxPending handlers may be
+ * running or waiting for the executor. Beyond that a request is turned away
+ * with a 503 before async processing starts.
+ */
+public class AsyncExecutionHandlerAdapter extends RequestMappingHandlerAdapter {
+
+	private static final String RETRY_AFTER_SECONDS = "1";
+
+	private static final String ASYNC_RESULT = AsyncExecutionHandlerAdapter.class.getName() + ".ASYNC_RESULT";
+
+	private final Semaphore pending;
+
+	private final Collection<String> paths;
+
+	public AsyncExecutionHandlerAdapter(int maxPending, String... paths) {
+		this.pending = new Semaphore(maxPending);
+		this.paths = Arrays.asList(paths);
+	}
+
+	/**
+	 * Takes the result of an async handler off the async manager before Spring
+	 * would wrap it in a stand-in method that expects a Callable return type.
+	 */
+	@Override
+	protected ModelAndView invokeHandlerMethod(HttpServletRequest request, HttpServletResponse response,
+			HandlerMethod handlerMethod) throws Exception {
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+		if (asyncManager.hasConcurrentResult() && runsAsync(handlerMethod)) {
+			request.setAttribute(ASYNC_RESULT, new AsyncResult(asyncManager.getConcurrentResult()));
+			asyncManager.clearConcurrentResult();
+		}
+		return super.invokeHandlerMethod(request, response, handlerMethod);
+	}
+
+	@Override
+	protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+		if (runsAsync(handlerMethod)) {
+			return new ExecutingHandlerMethod(handlerMethod);
+		}
+		return super.createInvocableHandlerMethod(handlerMethod);
+	}
+
+	private boolean runsAsync(HandlerMethod handlerMethod) {
+		RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(),
+				RequestMapping.class);
+		return mapping != null && Arrays.stream(mapping.path()).anyMatch(paths::contains);
+	}
+
+	private static void turnAway(HttpServletResponse response) throws IOException {
+		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		response.getWriter().write("{\"error\":\"too busy, retry shortly\"}");
+	}
+
+	private class ExecutingHandlerMethod extends ServletInvocableHandlerMethod {
+
+		private boolean handedOver;
+
+		ExecutingHandlerMethod(HandlerMethod handlerMethod) {
+			super(handlerMethod);
+		}
+
+		@Override
+		public void invokeAndHandle(ServletWebRequest webRequest, ModelAndViewContainer mavContainer,
+				Object... providedArgs) throws Exception {
+			if (webRequest.getAttribute(ASYNC_RESULT, RequestAttributes.SCOPE_REQUEST) != null) {
+				super.invokeAndHandle(webRequest, mavContainer, providedArgs);
+				return;
+			}
+			if (!pending.tryAcquire()) {
+				turnAway(webRequest.getResponse());
+				mavContainer.setRequestHandled(true);
+				return;
+			}
+			try {
+				super.invokeAndHandle(webRequest, mavContainer, providedArgs);
+			} finally {
+				if (!handedOver) {
+					// the arguments could not be resolved, so the handler never runs
+					pending.release();
+				}
+			}
+		}
+
+		@Override
+		public Object invokeForRequest(NativeWebRequest request, ModelAndViewContainer mavContainer,
+				Object... providedArgs) throws Exception {
+			AsyncResult asyncResult = (AsyncResult) request.getAttribute(ASYNC_RESULT, RequestAttributes.SCOPE_REQUEST);
+			if (asyncResult == null) {
+				return super.invokeForRequest(request, mavContainer, providedArgs);
+			}
+			request.removeAttribute(ASYNC_RESULT, RequestAttributes.SCOPE_REQUEST);
+			if (asyncResult.value instanceof Exception) {
+				throw (Exception) asyncResult.value;
+			}
+			if (asyncResult.value instanceof Error) {
+				throw (Error) asyncResult.value;
+			}
+			return asyncResult.value;
+		}
+
+		/**
+		 * Called with the resolved arguments; hands back the invocation itself
+		 * for the executor to run.
+		 */
+		@Override
+		protected Object doInvoke(Object... args) {
+			handedOver = true;
+			return (Callable<Object>) () -> {
+				try {
+					return super.doInvoke(args);
+				} finally {
+					pending.release();
+				}
+			};
+		}
+	}
+
+	private static class AsyncResult {
+
+		private final Object value;
+
+		AsyncResult(Object value) {
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+create sequence seq_item start with 1 increment by 50;
+create sequence seq_order start with 1 increment by 50;
+create sequence seq_line_item start with 1 increment by 50;
+create sequence seq_receipt start with 1 increment by 50;
+
+create table t_item (
+	id bigint not null,
+	version bigint,
+	name varchar(255),
+	price bigint,
+	primary key (id)
+);
+
+create table t_order (
+	id bigint not null,
+	version bigint,
+	paid boolean,
+	total bigint not null,
+	primary key (id)
+);
+
+create table t_line_item (
+	id bigint not null,
+	version bigint,
+	name varchar(255),
+	price bigint,
+	quantity integer,
+	order_id bigint,
+	item_id bigint,
+	primary key (id),
+	constraint fk_line_item_order foreign key (order_id) references t_order (id),
+	constraint fk_line_item_item foreign key (item_id) references t_item (id)
+);
+
+create table t_receipt (
+	id bigint not null,
+	order_id bigint,
+	payment bigint,
+	total bigint,
+	change bigint,
+	line_items varchar(65535),
+	primary key (id)
+);
+
+create table t_payment_key (
+	idempotency_key varchar(255) not null,
+	receipt_id bigint,
+	created_at bigint,
+	primary key (idempotency_key)
+);
@@ -0,0 +1,3 @@
+create unique index ux_line_item_order_item on t_line_item (order_id, item_id);
+create index ix_receipt_order_id on t_receipt (order_id);
+create index ix_order_paid on t_order (paid);
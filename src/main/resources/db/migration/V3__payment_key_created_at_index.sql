@@ -0,0 +1 @@
+create index ix_payment_key_created_at on t_payment_key (created_at);
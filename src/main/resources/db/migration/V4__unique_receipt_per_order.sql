@@ -0,0 +1,2 @@
+drop index ix_receipt_order_id;
+create unique index ux_receipt_order_id on t_receipt (order_id);
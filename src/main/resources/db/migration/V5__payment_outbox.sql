@@ -0,0 +1,9 @@
+create sequence seq_payment_outbox start with 1 increment by 50;
+
+create table t_payment_outbox (
+	id bigint not null,
+	order_id bigint,
+	total bigint not null,
+	receipt_id bigint,
+	primary key (id)
+);
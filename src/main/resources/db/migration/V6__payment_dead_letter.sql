@@ -0,0 +1,10 @@
+alter table t_payment_outbox add column attempts integer default 0 not null;
+
+create table t_payment_dead_letter (
+	id bigint not null,
+	order_id bigint,
+	total bigint not null,
+	receipt_id bigint,
+	attempts integer not null,
+	primary key (id)
+);
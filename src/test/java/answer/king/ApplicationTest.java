@@ -0,0 +1,24 @@
+package answer.king;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class ApplicationTest {
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Test
+	public void contextShouldStartWithApplicationProperties() {
+		// then
+		assertThat(context.getBean(Application.class)).isNotNull();
+	}
+}
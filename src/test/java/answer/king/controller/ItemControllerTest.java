@@ -1,8 +1,11 @@
 package answer.king.controller;
 
 import static answer.king.test.TestUtils.item;
+import static answer.king.test.TestUtils.money;
 import static org.assertj.core.util.Lists.newArrayList;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.refEq;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
@@ -10,9 +13,11 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,8 +29,15 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import answer.king.model.Item;
+import answer.king.model.PriceChange;
+import answer.king.service.ImportResult;
 import answer.king.service.InvalidItemException;
+import answer.king.service.ItemImporter;
+import answer.king.service.ItemNotFoundException;
 import answer.king.service.ItemService;
+import answer.king.service.Menu;
+import answer.king.service.MenuCache;
+import answer.king.service.RepriceResult;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(ItemController.class)
@@ -35,20 +47,52 @@ public class ItemControllerTest {
 	@MockBean
 	private ItemService itemService;
 
+	@MockBean
+	private MenuCache menuCache;
+
+	@MockBean
+	private ItemImporter itemImporter;
+
 	@Autowired
 	private MockMvc mvc;
 
 	@Test
-	public void getShouldGetAllItemsFromItemService() throws Exception {
+	public void getShouldServeCachedMenuWithETag() throws Exception {
 		// Given
-		given(itemService.getAll()).willReturn(newArrayList(item(1L, "itemName", 10.0)));
+		given(menuCache.getMenu()).willReturn(menu("[{\"id\":1,\"name\":\"itemName\",\"price\":10.00}]"));
 
 		// when & then
 		mvc.perform(get("/item").accept(APPLICATION_JSON)) //
 				.andExpect(status().isOk()) //
+				.andExpect(header().string("ETag", "\"menu-abc\"")) //
 				.andExpect(content().json("[{'id':1, 'name':'itemName', 'price':10}]"));
 	}
 
+	@Test
+	public void getShouldServeGzipToClientsThatAcceptIt() throws Exception {
+		// Given
+		Menu menu = menu("[]");
+		given(menuCache.getMenu()).willReturn(menu);
+
+		// when & then
+		mvc.perform(get("/item").accept(APPLICATION_JSON).header("Accept-Encoding", "gzip, deflate")) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().string("Content-Encoding", "gzip")) //
+				.andExpect(header().string("ETag", "\"menu-abc-gzip\"")) //
+				.andExpect(content().bytes(menu.getGzip()));
+	}
+
+	@Test
+	public void getShouldReturn304WhenMenuIsUnchanged() throws Exception {
+		// Given
+		given(menuCache.getMenu()).willReturn(menu("[]"));
+
+		// when & then
+		mvc.perform(get("/item").accept(APPLICATION_JSON).header("If-None-Match", "\"menu-abc\"")) //
+				.andExpect(status().isNotModified()) //
+				.andExpect(content().string(""));
+	}
+
 	@Test
 	public void postShouldCreateItemUsingItemService() throws Exception {
 		// Given
@@ -84,7 +128,7 @@ public class ItemControllerTest {
 		long itemId = 3030L;
 		double newPrice = 15.0;
 
-		given(itemService.updatePrice(eq(itemId), eq(BigDecimal.valueOf(newPrice))))
+		given(itemService.updatePrice(eq(itemId), eq(money(newPrice))))
 				.willReturn(item(itemId, "itemName", newPrice));
 
 		// when & then
@@ -101,7 +145,7 @@ public class ItemControllerTest {
 		long itemId = 3030L;
 		double newPrice = -1.0;
 
-		given(itemService.updatePrice(eq(itemId), eq(BigDecimal.valueOf(newPrice))))
+		given(itemService.updatePrice(eq(itemId), eq(money(newPrice))))
 				.willThrow(new InvalidItemException("invalid price"));
 
 		// when & then
@@ -111,4 +155,50 @@ public class ItemControllerTest {
 				.andExpect(status().isBadRequest()) //
 				.andExpect(content().json("{'error':'invalid price'}"));
 	}
+
+	@Test
+	public void importShouldStreamCsvBodyToImporterAndReportResult() throws Exception {
+		// Given
+		ImportResult result = new ImportResult(10);
+		given(itemImporter.importCsv(any(InputStream.class))).willReturn(result);
+
+		// when & then
+		mvc.perform( //
+				post("/item/import").contentType("text/csv").content("name,price\nburger,3.50\n")
+						.accept(APPLICATION_JSON))
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("{'imported':0, 'rejected':0, 'errors':[]}"));
+	}
+
+	@Test
+	public void updatePriceShouldReturn404WhenItemDoesNotExist() throws Exception {
+		// Given
+		given(itemService.updatePrice(eq(3030L), eq(money(15.0))))
+				.willThrow(new ItemNotFoundException("item 3030 does not exist"));
+
+		// when & then
+		mvc.perform( //
+				put("/item/3030/price").contentType(APPLICATION_JSON).content("15.0").accept(APPLICATION_JSON))
+				.andExpect(status().isNotFound()) //
+				.andExpect(content().json("{'error':'item 3030 does not exist'}"));
+	}
+
+	@Test
+	public void updatePricesShouldRepriceItemsInOneCall() throws Exception {
+		// Given
+		given(itemService.updatePrices(anyListOf(PriceChange.class)))
+				.willReturn(new RepriceResult(1, newArrayList(2020L)));
+
+		// when & then
+		mvc.perform( //
+				put("/item/prices").contentType(APPLICATION_JSON)
+						.content("[{\"itemId\":1010,\"price\":4.00},{\"itemId\":2020,\"price\":2.00}]")
+						.accept(APPLICATION_JSON))
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("{'updated':1, 'missingItemIds':[2020]}"));
+	}
+
+	private static Menu menu(String json) {
+		return new Menu(1L, "abc", json.getBytes(StandardCharsets.UTF_8), new byte[] { 31, -117, 8 });
+	}
 }
\ No newline at end of file
@@ -2,21 +2,32 @@ package answer.king.controller;
 
 import static answer.king.test.TestUtils.item;
 import static answer.king.test.TestUtils.lineItem;
+import static answer.king.test.TestUtils.money;
 import static answer.king.test.TestUtils.order;
 import static answer.king.test.TestUtils.receipt;
+import static answer.king.test.TestUtils.receiptView;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.util.Lists.newArrayList;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
 import static org.mockito.Matchers.refEq;
+import static org.mockito.Mockito.never;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-import java.math.BigDecimal;
+import java.util.List;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -29,10 +40,21 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import answer.king.model.BasketItem;
+import answer.king.model.Money;
 import answer.king.model.Order;
 import answer.king.model.Receipt;
+import answer.king.service.IdempotentPaymentService;
 import answer.king.service.InsufficientPaymentException;
+import answer.king.service.InvalidItemException;
+import answer.king.service.OrderAlreadyPaidException;
+import answer.king.service.OrderNotFoundException;
+import answer.king.service.PaymentBacklogException;
+import answer.king.service.OrderQueryService;
 import answer.king.service.OrderService;
+import answer.king.service.ReceiptService;
+import answer.king.view.LineItemView;
+import answer.king.view.OrderView;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(OrderController.class)
@@ -42,17 +64,29 @@ public class OrderControllerTest {
 	@MockBean
 	private OrderService orderService;
 
+	@MockBean
+	private OrderQueryService orderQueryService;
+
+	@MockBean
+	private IdempotentPaymentService idempotentPaymentService;
+
+	@MockBean
+	private ReceiptService receiptService;
+
 	@Autowired
 	private MockMvc mvc;
 
 	@Captor
 	private ArgumentCaptor<Order> orderCaptor;
 
+	@Captor
+	private ArgumentCaptor<List<BasketItem>> basketCaptor;
+
 	@Test
-	public void getShouldGetAllOrdersFromOrderService() throws Exception {
+	public void getShouldGetAllOrdersFromOrderQueryService() throws Exception {
 		// Given
-		Order order = order(1L, false, lineItem(3L, item(2L, "itemName", 10.0), 1));
-		given(orderService.getAll()).willReturn(newArrayList(order));
+		OrderView order = new OrderView(1L, false, newArrayList(new LineItemView(3L, "itemName", money(10.0), 1)));
+		given(orderQueryService.getPage(null, null)).willReturn(newArrayList(order));
 
 		// when & then
 		mvc.perform(get("/order").accept(APPLICATION_JSON)) //
@@ -61,6 +95,18 @@ public class OrderControllerTest {
 						"[{'id':1, 'paid':false, 'items':[{'id':3, 'name':'itemName', 'price':10, 'quantity':1}]}]"));
 	}
 
+	@Test
+	public void getWithCursorShouldGetPageOfOrdersFromOrderQueryService() throws Exception {
+		// Given
+		OrderView order = new OrderView(11L, false, newArrayList());
+		given(orderQueryService.getPage(eq(10L), eq(5))).willReturn(newArrayList(order));
+
+		// when & then
+		mvc.perform(get("/order").param("after", "10").param("limit", "5").accept(APPLICATION_JSON)) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("[{'id':11, 'paid':false, 'items':[]}]"));
+	}
+
 	@Test
 	public void postShouldCreateOrderUsingOrderService() throws Exception {
 		// Given
@@ -101,6 +147,108 @@ public class OrderControllerTest {
 		then(orderService).should().addItem(eq(orderId), eq(itemId), eq(quantity));
 	}
 
+	@Test
+	public void putItemShouldReturn409WhenOrderIsAlreadyPaid() throws Exception {
+		// Given
+		Long orderId = 101L;
+		Long itemId = 202L;
+		willThrow(new OrderAlreadyPaidException("order already paid")).given(orderService).addItem(eq(orderId),
+				eq(itemId), eq(1));
+
+		// when & then
+		mvc.perform(put("/order/" + orderId + "/addItem/" + itemId).accept(APPLICATION_JSON))
+				.andExpect(status().isConflict()) //
+				.andExpect(content().json("{'error':'order already paid'}"));
+	}
+
+	@Test
+	public void putPaymentShouldReturn503WhenPaymentsAreBackedUp() throws Exception {
+		// Given
+		Long orderId = 101L;
+		given(idempotentPaymentService.pay(eq(orderId), any(Money.class), (String) isNull()))
+				.willThrow(new PaymentBacklogException("payments are backed up, retry shortly"));
+
+		// when & then
+		mvc.perform(put("/order/" + orderId + "/pay").contentType(APPLICATION_JSON).content("10")
+				.accept(APPLICATION_JSON))
+				.andExpect(status().isServiceUnavailable()) //
+				.andExpect(header().string("Retry-After", "1")) //
+				.andExpect(content().json("{'error':'payments are backed up, retry shortly'}"));
+	}
+
+	@Test
+	public void putItemShouldReturn400WhenItemIsInvalid() throws Exception {
+		// Given
+		Long orderId = 101L;
+		Long itemId = 202L;
+		willThrow(new InvalidItemException("item 202 does not exist")).given(orderService).addItem(eq(orderId),
+				eq(itemId), eq(1));
+
+		// when & then
+		mvc.perform(put("/order/" + orderId + "/addItem/" + itemId).accept(APPLICATION_JSON))
+				.andExpect(status().isBadRequest()) //
+				.andExpect(content().json("{'error':'item 202 does not exist'}"));
+	}
+
+	@Test
+	public void putItemShouldReturn404WhenOrderDoesNotExist() throws Exception {
+		// Given
+		Long orderId = 101L;
+		Long itemId = 202L;
+		willThrow(new OrderNotFoundException("order 101 does not exist")).given(orderService).addItem(eq(orderId),
+				eq(itemId), eq(1));
+
+		// when & then
+		mvc.perform(put("/order/" + orderId + "/addItem/" + itemId).accept(APPLICATION_JSON))
+				.andExpect(status().isNotFound()) //
+				.andExpect(content().json("{'error':'order 101 does not exist'}"));
+	}
+
+	@Test
+	public void putBasketShouldAddItemsUsingOrderService() throws Exception {
+		// Given
+		Long orderId = 101L;
+
+		// when
+		mvc.perform(put("/order/" + orderId + "/addItems").contentType(APPLICATION_JSON)
+				.content("[{\"itemId\":202,\"quantity\":2},{\"itemId\":203,\"quantity\":1}]"))
+				.andExpect(status().isOk());
+
+		// then
+		then(orderService).should().addItems(eq(orderId), basketCaptor.capture());
+		List<BasketItem> basket = basketCaptor.getValue();
+		assertThat(basket).usingFieldByFieldElementComparator().containsExactly(new BasketItem(202L, 2),
+				new BasketItem(203L, 1));
+	}
+
+	@Test
+	public void putBasketShouldReturn400WhenItemIsInvalid() throws Exception {
+		// Given
+		Long orderId = 101L;
+		willThrow(new InvalidItemException("item 202 does not exist")).given(orderService).addItems(eq(orderId),
+				anyListOf(BasketItem.class));
+
+		// when & then
+		mvc.perform(put("/order/" + orderId + "/addItems").contentType(APPLICATION_JSON)
+				.content("[{\"itemId\":202,\"quantity\":1}]").accept(APPLICATION_JSON))
+				.andExpect(status().isBadRequest()) //
+				.andExpect(content().json("{'error':'item 202 does not exist'}"));
+	}
+
+	@Test
+	public void putBasketShouldReturn404WhenOrderDoesNotExist() throws Exception {
+		// Given
+		Long orderId = 101L;
+		willThrow(new OrderNotFoundException("order 101 does not exist")).given(orderService).addItems(eq(orderId),
+				anyListOf(BasketItem.class));
+
+		// when & then
+		mvc.perform(put("/order/" + orderId + "/addItems").contentType(APPLICATION_JSON)
+				.content("[{\"itemId\":202,\"quantity\":1}]").accept(APPLICATION_JSON))
+				.andExpect(status().isNotFound()) //
+				.andExpect(content().json("{'error':'order 101 does not exist'}"));
+	}
+
 	@Test
 	public void putPaymentShouldPayOrderUsingOrderService() throws Exception {
 		// Given
@@ -109,39 +257,124 @@ public class OrderControllerTest {
 		Long lineItemId = 303L;
 		Long receiptId = 404L;
 
-		BigDecimal payment = BigDecimal.TEN;
+		Money payment = money(10.0);
 		Double price = 25.0;
 		Integer quantity = 1;
-		Double expectedChange = payment.doubleValue() - price;
+		Double expectedChange = payment.toBigDecimal().doubleValue() - price;
 
 		Order order = order(orderId, false, lineItem(lineItemId, item(itemId, "itemName", price), quantity));
 		Receipt receipt = receipt(receiptId, order, payment);
-		given(orderService.pay(eq(orderId), eq(payment))).willReturn(receipt);
+		given(idempotentPaymentService.pay(eq(orderId), eq(payment), (String) isNull())).willReturn(receipt);
+
+		// when & then
+		mvc.perform(//
+				put("/order/" + orderId + "/pay") //
+						.contentType(APPLICATION_JSON).content("10").accept(APPLICATION_JSON)) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("{'id':" + receiptId + ",'orderId':" + orderId + ",'payment':" + payment.toBigDecimal()
+						+ ",'total':" + price + ",'items':[{'id':" + lineItemId + ",'name':'itemName','price':" + price
+						+ ",'quantity':" + quantity + "}],'change':" + expectedChange + "}"))
+				.andExpect(content().json("{'order':{'id':" + orderId + ",'paid':true,'items':[{'id':" + lineItemId
+						+ ",'name':'itemName','price':" + price + ",'quantity':" + quantity + "}]}}"));
+	}
+
+	@Test
+	public void putPaymentShouldPassIdempotencyKeyToPaymentService() throws Exception {
+		// Given
+		Long orderId = 101L;
+		Money payment = money(10.0);
+		String idempotencyKey = "till-1-payment-7";
+
+		Order order = order(orderId, true, lineItem(303L, item(202L, "itemName", 5.0), 1));
+		given(idempotentPaymentService.pay(eq(orderId), eq(payment), eq(idempotencyKey)))
+				.willReturn(receipt(404L, order, payment));
 
 		// when & then
 		mvc.perform(//
 				put("/order/" + orderId + "/pay") //
-						.contentType(APPLICATION_JSON).content(payment.toString()).accept(APPLICATION_JSON)) //
+						.header("Idempotency-Key", idempotencyKey) //
+						.contentType(APPLICATION_JSON).content("10").accept(APPLICATION_JSON)) //
 				.andExpect(status().isOk()) //
-				.andExpect(content().json("{'payment':" + payment + ",'order':{'id':" + orderId
-						+ ", 'paid':false, 'items':[{'id':" + lineItemId + ",'name':'itemName','price':" + price
-						+ ",'quantity':" + quantity + "}]},'change':" + expectedChange + "}"));
+				.andExpect(content().json("{'id':404, 'payment':10, 'change':5}"));
 	}
 
 	@Test
 	public void putPaymentShouldReturn400WhenPaymentIsInsuffcient() throws Exception {
 		// Given
 		Long orderId = 101L;
-		BigDecimal payment = BigDecimal.TEN;
+		Money payment = money(10.0);
 
-		given(orderService.pay(eq(orderId), eq(payment)))
+		given(idempotentPaymentService.pay(eq(orderId), eq(payment), (String) isNull()))
 				.willThrow(new InsufficientPaymentException("insufficient payment"));
 
 		// when & then
 		mvc.perform(//
 				put("/order/" + orderId + "/pay") //
-						.contentType(APPLICATION_JSON).content(payment.toString()).accept(APPLICATION_JSON)) //
+						.contentType(APPLICATION_JSON).content("10").accept(APPLICATION_JSON)) //
 				.andExpect(status().isBadRequest()) //
 				.andExpect(content().json("{'error':'insufficient payment'}"));
 	}
+
+	@Test
+	public void putPaymentShouldReturn400WhenPaymentHasFractionsOfAPenny() throws Exception {
+		// when & then
+		mvc.perform(//
+				put("/order/101/pay") //
+						.contentType(APPLICATION_JSON).content("10.005").accept(APPLICATION_JSON)) //
+				.andExpect(status().isBadRequest());
+		then(idempotentPaymentService).should(never()).pay(anyLong(), any(Money.class), anyString());
+	}
+
+	@Test
+	public void putPaymentShouldReturn400WhenPaymentIsOutOfRange() throws Exception {
+		// when & then
+		mvc.perform(//
+				put("/order/101/pay") //
+						.contentType(APPLICATION_JSON).content("1e30").accept(APPLICATION_JSON)) //
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void putPaymentShouldReturn409WhenOrderIsAlreadyPaid() throws Exception {
+		// Given
+		Long orderId = 101L;
+		Money payment = money(10.0);
+
+		given(idempotentPaymentService.pay(eq(orderId), eq(payment), (String) isNull()))
+				.willThrow(new OrderAlreadyPaidException("order already paid"));
+
+		// when & then
+		mvc.perform(//
+				put("/order/" + orderId + "/pay") //
+						.contentType(APPLICATION_JSON).content("10").accept(APPLICATION_JSON)) //
+				.andExpect(status().isConflict()) //
+				.andExpect(content().json("{'error':'order already paid'}"));
+	}
+
+	@Test
+	public void getReceiptShouldReturnReceiptForOrder() throws Exception {
+		// Given
+		Long orderId = 101L;
+		Money payment = money(10.0);
+
+		Order order = order(orderId, true, lineItem(303L, item(202L, "itemName", 5.0), 1));
+		given(receiptService.getReceiptForOrder(eq(orderId))).willReturn(receiptView(404L, order, payment));
+
+		// when & then
+		mvc.perform(get("/order/" + orderId + "/receipt").accept(APPLICATION_JSON)) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().string("ETag", "\"receipt-404\"")) //
+				.andExpect(content().json("{'id':404, 'orderId':101, 'total':5, 'change':5}"));
+	}
+
+	@Test
+	public void getReceiptShouldReturn404WhenOrderIsNotPaid() throws Exception {
+		// Given
+		Long orderId = 101L;
+		given(receiptService.getReceiptForOrder(eq(orderId))).willReturn(null);
+
+		// when & then
+		mvc.perform(get("/order/" + orderId + "/receipt").accept(APPLICATION_JSON)) //
+				.andExpect(status().isNotFound());
+	}
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package answer.king.controller;
+
+import static answer.king.test.TestUtils.item;
+import static answer.king.test.TestUtils.money;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import answer.king.metrics.QueryCounter;
+import answer.king.model.Order;
+import answer.king.service.ItemService;
+import answer.king.service.OrderService;
+
+/**
+ * Runs the main order endpoints against the database and checks how many SQL
+ * statements each one needs, so that an N+1 regression fails the build.
+ * Each test is named for the number it asserts: the handler's @QueryBudget,
+ * or a tighter number for a path that should need less than the budget.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "answer.king.query-budget.fail=true", "spring.jpa.show-sql=false" })
+@AutoConfigureMockMvc
+public class QueryBudgetTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private OrderService orderService;
+
+	private Long itemId;
+
+	private Long orderId;
+
+	@Before
+	public void setUp() throws Exception {
+		itemId = itemService.save(item(null, "itemName", 2.5)).getId();
+		orderId = orderService.save(new Order()).getId();
+	}
+
+	@Test
+	public void getOrdersShouldStayWithinTwoQueries() throws Exception {
+		// Given
+		orderService.addItem(orderId, itemId, 1);
+		orderService.addItem(orderService.save(new Order()).getId(), itemId, 2);
+
+		// when
+		int queries = queriesFor(get("/order").accept(APPLICATION_JSON));
+
+		// then
+		assertThat(queries).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void addItemShouldStayWithinFiveQueries() throws Exception {
+		// Given
+		orderService.addItem(orderService.save(new Order()).getId(), itemId, 1);
+
+		// when
+		int queries = queriesFor(put("/order/" + orderId + "/addItem/" + itemId));
+
+		// then
+		assertThat(queries).isLessThanOrEqualTo(5);
+	}
+
+	@Test
+	public void addItemToExistingLineShouldStayWithinTwoQueries() throws Exception {
+		// Given
+		orderService.addItem(orderId, itemId, 1);
+
+		// when
+		int queries = queriesFor(put("/order/" + orderId + "/addItem/" + itemId));
+
+		// then
+		assertThat(queries).isLessThanOrEqualTo(2);
+	}
+
+	@Test
+	public void payShouldStayWithinSevenQueries() throws Exception {
+		// Given
+		Long paidOrderId = orderService.save(new Order()).getId();
+		orderService.addItem(paidOrderId, itemId, 1);
+		orderService.pay(paidOrderId, money(10.0));
+		orderService.addItem(orderId, itemId, 2);
+
+		// when
+		int queries = queriesFor(put("/order/" + orderId + "/pay").contentType(APPLICATION_JSON).content("10"));
+
+		// then
+		assertThat(queries).isLessThanOrEqualTo(7);
+	}
+
+	private int queriesFor(RequestBuilder request) throws Exception {
+		int before = QueryCounter.current();
+		mvc.perform(request).andExpect(status().isOk());
+		return QueryCounter.current() - before;
+	}
+}
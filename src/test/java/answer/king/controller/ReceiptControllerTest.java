@@ -0,0 +1,76 @@
+package answer.king.controller;
+
+import static answer.king.test.TestUtils.item;
+import static answer.king.test.TestUtils.lineItem;
+import static answer.king.test.TestUtils.money;
+import static answer.king.test.TestUtils.order;
+import static answer.king.test.TestUtils.receiptView;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.eq;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import answer.king.model.Order;
+import answer.king.service.ReceiptService;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(ReceiptController.class)
+@AutoConfigureMockMvc
+public class ReceiptControllerTest {
+
+	@MockBean
+	private ReceiptService receiptService;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	public void getShouldReturnReceiptSnapshot() throws Exception {
+		// Given
+		Long receiptId = 404L;
+		Order order = order(101L, true, lineItem(303L, item(202L, "itemName", 2.5), 2));
+		given(receiptService.getReceipt(eq(receiptId))).willReturn(receiptView(receiptId, order, money(10.0)));
+
+		// when & then
+		mvc.perform(get("/receipt/" + receiptId).accept(APPLICATION_JSON)) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().string("ETag", "\"receipt-404\"")) //
+				.andExpect(header().string("Cache-Control", "max-age=86400, private")) //
+				.andExpect(content().json("{'id':404, 'orderId':101, 'payment':10, 'total':5, 'change':5,"
+						+ " 'items':[{'name':'itemName', 'price':2.5, 'quantity':2}]}"));
+	}
+
+	@Test
+	public void getShouldReturn304WhenClientHoldsReceipt() throws Exception {
+		// Given
+		Long receiptId = 404L;
+		Order order = order(101L, true, lineItem(303L, item(202L, "itemName", 2.5), 2));
+		given(receiptService.getReceipt(eq(receiptId))).willReturn(receiptView(receiptId, order, money(10.0)));
+
+		// when & then
+		mvc.perform(get("/receipt/" + receiptId).header("If-None-Match", "\"receipt-404\"").accept(APPLICATION_JSON)) //
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	public void getShouldReturn404ForUnknownReceipt() throws Exception {
+		// Given
+		given(receiptService.getReceipt(eq(404L))).willReturn(null);
+
+		// when & then
+		mvc.perform(get("/receipt/404").accept(APPLICATION_JSON)) //
+				.andExpect(status().isNotFound());
+	}
+}
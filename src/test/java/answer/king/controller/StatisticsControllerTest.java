@@ -0,0 +1,56 @@
+package answer.king.controller;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import answer.king.service.SqlStatistics;
+import answer.king.service.SqlStatisticsService;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(StatisticsController.class)
+@AutoConfigureMockMvc
+public class StatisticsControllerTest {
+
+	@MockBean
+	private SqlStatisticsService sqlStatisticsService;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Test
+	public void getShouldReturnSqlStatisticsFromService() throws Exception {
+		// Given
+		given(sqlStatisticsService.getStatistics())
+				.willReturn(new SqlStatistics(true, 100L, 12L, 3L, 5L, "select o from Order o", 4L, 2L, 1L, 0L, 2L, 2L));
+
+		// when & then
+		mvc.perform(get("/statistics/sql").accept(APPLICATION_JSON)) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().json("{'enabled':true, 'statementCount':12, 'queryCount':3, 'slowestQueryTime':5,"
+						+ " 'slowestQuery':'select o from Order o', 'entityInsertCount':2}"));
+	}
+
+	@Test
+	public void deleteShouldNotResetSqlStatistics() throws Exception {
+		// when
+		mvc.perform(delete("/statistics/sql")).andExpect(status().isMethodNotAllowed());
+
+		// then
+		then(sqlStatisticsService).should(never()).reset();
+	}
+}
@@ -0,0 +1,34 @@
+package answer.king.event;
+
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderFeedTest {
+
+	@Mock
+	private SimpMessageSendingOperations messagingTemplate;
+
+	@InjectMocks
+	private OrderFeed orderFeed;
+
+	@Test
+	public void publishShouldSendEventToOrdersTopic() {
+		// Given
+		OrderEvent event = OrderEvent.itemAdded(1010L, 2020L, 3, 1500L);
+
+		// when
+		orderFeed.publish(event);
+
+		// then
+		then(messagingTemplate).should().convertAndSend(eq("/topic/orders"), same(event));
+	}
+}
@@ -0,0 +1,205 @@
+package answer.king.event;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.never;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import answer.king.model.PaymentDeadLetter;
+import answer.king.model.PaymentOutboxEntry;
+import answer.king.repo.PaymentDeadLetterRepository;
+import answer.king.repo.PaymentOutboxRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PaymentEventPipelineTest {
+
+	@Mock
+	private PaymentEventHandler handler;
+
+	@Mock
+	private PaymentOutboxRepository outboxRepository;
+
+	@Mock
+	private PaymentDeadLetterRepository deadLetterRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private PaymentEventPipeline pipeline;
+
+	@Captor
+	private ArgumentCaptor<PaymentOutboxEntry> entryCaptor;
+
+	@Captor
+	private ArgumentCaptor<List<OrderEvent>> batchCaptor;
+
+	@Captor
+	private ArgumentCaptor<List<PaymentDeadLetter>> deadLettersCaptor;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(pipeline, "handlers", singletonList(handler));
+		ReflectionTestUtils.setField(pipeline, "batchSize", 2);
+		ReflectionTestUtils.setField(pipeline, "maxAttempts", 3);
+		ReflectionTestUtils.setField(pipeline, "maxDepth", 2L);
+	}
+
+	@Test
+	public void recordShouldWritePaidEventToOutbox() {
+		// when
+		pipeline.record(OrderEvent.paid(1010L, 500L, 3030L));
+
+		// then
+		then(outboxRepository).should().save(entryCaptor.capture());
+		PaymentOutboxEntry entry = entryCaptor.getValue();
+		assertThat(entry.getOrderId()).isEqualTo(1010L);
+		assertThat(entry.getTotal()).isEqualTo(500L);
+		assertThat(entry.getReceiptId()).isEqualTo(3030L);
+	}
+
+	@Test
+	public void recordShouldIgnoreOtherEvents() {
+		// when
+		pipeline.record(OrderEvent.created(1010L));
+
+		// then
+		then(outboxRepository).should(never()).save(any(PaymentOutboxEntry.class));
+	}
+
+	@Test
+	public void drainBatchShouldHandOutboxEventsToHandlersAndDeleteThem() {
+		// Given
+		List<PaymentOutboxEntry> entries = asList(entry(1010L, 500L, 3030L), entry(1011L, 250L, 3031L));
+		given(outboxRepository.findOldest(any(Pageable.class))).willReturn(entries);
+
+		// when
+		boolean full = pipeline.drainBatch();
+
+		// then
+		then(handler).should().handle(batchCaptor.capture());
+		assertThat(batchCaptor.getValue()).extracting("orderId", "receiptId")
+				.containsExactly(tuple(1010L, 3030L), tuple(1011L, 3031L));
+		then(outboxRepository).should().deleteInBatch(entries);
+		assertThat(full).isTrue();
+		assertThat(pipeline.getProcessed()).isEqualTo(2);
+	}
+
+	@Test
+	public void drainBatchShouldKeepEventsWhenHandlerFails() {
+		// Given
+		List<PaymentOutboxEntry> entries = singletonList(entry(1L, 1010L, 500L, 3030L, 0));
+		given(outboxRepository.findOldest(any(Pageable.class))).willReturn(entries);
+		willThrow(new IllegalStateException("printer offline")).given(handler)
+				.handle(anyListOf(OrderEvent.class));
+
+		// when
+		boolean full = pipeline.drainBatch();
+
+		// then
+		then(outboxRepository).should(never()).deleteInBatch(anyListOf(PaymentOutboxEntry.class));
+		assertThat(full).isFalse();
+		assertThat(pipeline.getFailed()).isEqualTo(1);
+		assertThat(pipeline.getProcessed()).isEqualTo(0);
+		then(outboxRepository).should().addAttempt(singletonList(1L));
+		then(deadLetterRepository).should(never()).save(anyListOf(PaymentDeadLetter.class));
+	}
+
+	@Test
+	public void drainBatchShouldRetryFailedBatchEventByEventAndDeleteThoseTaken() {
+		// Given
+		PaymentOutboxEntry taken = entry(1L, 1010L, 500L, 3030L, 0);
+		PaymentOutboxEntry failing = entry(2L, 1011L, 250L, 3031L, 0);
+		given(outboxRepository.findOldest(any(Pageable.class))).willReturn(asList(taken, failing));
+		willAnswer(invocation -> {
+			List<?> batch = (List<?>) invocation.getArguments()[0];
+			for (Object event : batch) {
+				if (((OrderEvent) event).getOrderId() == 1011L) {
+					throw new IllegalStateException("printer offline");
+				}
+			}
+			return null;
+		}).given(handler).handle(anyListOf(OrderEvent.class));
+
+		// when
+		boolean full = pipeline.drainBatch();
+
+		// then
+		then(outboxRepository).should().deleteInBatch(singletonList(taken));
+		then(outboxRepository).should().addAttempt(singletonList(2L));
+		assertThat(full).isFalse();
+		assertThat(pipeline.getProcessed()).isEqualTo(1);
+		assertThat(pipeline.getDeadLettered()).isEqualTo(0);
+	}
+
+	@Test
+	public void drainBatchShouldMoveEventToDeadLetterTableAfterLastAttempt() {
+		// Given
+		List<PaymentOutboxEntry> entries = singletonList(entry(1L, 1010L, 500L, 3030L, 2));
+		given(outboxRepository.findOldest(any(Pageable.class))).willReturn(entries);
+		willThrow(new IllegalStateException("printer offline")).given(handler)
+				.handle(anyListOf(OrderEvent.class));
+
+		// when
+		pipeline.drainBatch();
+
+		// then
+		then(deadLetterRepository).should().save(deadLettersCaptor.capture());
+		assertThat(deadLettersCaptor.getValue()).extracting("id", "orderId", "receiptId", "attempts")
+				.containsExactly(tuple(1L, 1010L, 3030L, 3));
+		then(outboxRepository).should().deleteInBatch(entries);
+		then(outboxRepository).should(never()).addAttempt(anyListOf(Long.class));
+		assertThat(pipeline.getDeadLettered()).isEqualTo(1);
+	}
+
+	@Test
+	public void pipelineShouldBeBackedUpOnceOutboxReachesMaxDepth() {
+		// Given
+		pipeline.onCommit(OrderEvent.paid(1010L, 500L, 3030L));
+		boolean backedUpBelowMaxDepth = pipeline.isBackedUp();
+
+		// when
+		pipeline.onCommit(OrderEvent.paid(1011L, 250L, 3031L));
+
+		// then
+		assertThat(backedUpBelowMaxDepth).isFalse();
+		assertThat(pipeline.isBackedUp()).isTrue();
+		assertThat(pipeline.getQueueDepth()).isEqualTo(2);
+	}
+
+	private static PaymentOutboxEntry entry(Long orderId, long total, Long receiptId) {
+		PaymentOutboxEntry entry = new PaymentOutboxEntry();
+		entry.setOrderId(orderId);
+		entry.setTotal(total);
+		entry.setReceiptId(receiptId);
+		return entry;
+	}
+
+	private static PaymentOutboxEntry entry(Long id, Long orderId, long total, Long receiptId, int attempts) {
+		PaymentOutboxEntry entry = entry(orderId, total, receiptId);
+		entry.setId(id);
+		entry.setAttempts(attempts);
+		return entry;
+	}
+}
@@ -0,0 +1,33 @@
+package answer.king.event;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PaymentMetricsHandlerTest {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private final PaymentMetricsHandler handler = new PaymentMetricsHandler();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(handler, "meterRegistry", meterRegistry);
+	}
+
+	@Test
+	public void handleShouldCountPaymentsAndSumTakings() {
+		// when
+		handler.handle(asList(OrderEvent.paid(1L, 250L, 1L), OrderEvent.paid(2L, 1000L, 2L)));
+
+		// then
+		assertThat(meterRegistry.get(PaymentMetricsHandler.PAYMENTS).counter().count()).isEqualTo(2.0);
+		assertThat(meterRegistry.get(PaymentMetricsHandler.TAKINGS).summary().totalAmount()).isEqualTo(12.5);
+	}
+}
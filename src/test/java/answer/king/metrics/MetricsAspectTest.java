@@ -0,0 +1,128 @@
+package answer.king.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import answer.king.controller.OrderController;
+import answer.king.repo.OrderRepository;
+import answer.king.service.InsufficientPaymentException;
+import answer.king.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MetricsAspectTest {
+
+	@Mock
+	private ProceedingJoinPoint joinPoint;
+
+	@Mock
+	private Signature signature;
+
+	@InjectMocks
+	private MetricsAspect metricsAspect;
+
+	private MeterRegistry meterRegistry;
+
+	@Before
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(metricsAspect, "meterRegistry", meterRegistry);
+		given(joinPoint.getSignature()).willReturn(signature);
+	}
+
+	@Test
+	public void timeServiceShouldRecordTimerForMethod() throws Throwable {
+		// Given
+		given(signature.getDeclaringType()).willReturn(OrderService.class);
+		given(signature.getName()).willReturn("pay");
+		given(joinPoint.proceed()).willReturn("result");
+
+		// when
+		Object result = metricsAspect.timeService(joinPoint);
+
+		// then
+		assertThat(result).isEqualTo("result");
+		assertThat(meterRegistry.get(MetricsAspect.SERVICE_TIMER).tag("class", "OrderService").tag("method", "pay")
+				.tag("exception", "none").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void timeServiceShouldTagTimerWithException() throws Throwable {
+		// Given
+		given(signature.getDeclaringType()).willReturn(OrderService.class);
+		given(signature.getName()).willReturn("pay");
+		given(joinPoint.proceed()).willThrow(new InsufficientPaymentException("insufficient payment"));
+
+		// when
+		try {
+			metricsAspect.timeService(joinPoint);
+		} catch (InsufficientPaymentException e) {
+			// expected
+		}
+
+		// then
+		assertThat(meterRegistry.get(MetricsAspect.SERVICE_TIMER).tag("exception", "InsufficientPaymentException")
+				.timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	public void countRequestShouldRecordRepositoryCallsMadeByHandler() throws Throwable {
+		// Given
+		ProceedingJoinPoint repositoryCall = repositoryCall();
+		given(signature.getDeclaringType()).willReturn(OrderController.class);
+		given(signature.getName()).willReturn("getAll");
+		given(joinPoint.proceed()).willAnswer(invocation -> {
+			metricsAspect.timeRepository(repositoryCall);
+			return metricsAspect.timeRepository(repositoryCall);
+		});
+
+		// when
+		metricsAspect.countRequest(joinPoint);
+
+		// then
+		assertThat(meterRegistry.get(MetricsAspect.REPOSITORY_CALLS_PER_REQUEST).tag("handler", "OrderController.getAll")
+				.summary().totalAmount()).isEqualTo(2.0);
+		assertThat(meterRegistry.get(MetricsAspect.REPOSITORY_TIMER).tag("method", "findOne").timer().count())
+				.isEqualTo(2);
+	}
+
+	@Test
+	public void countRequestShouldCountExceptionsFromHandler() throws Throwable {
+		// Given
+		given(signature.getDeclaringType()).willReturn(OrderController.class);
+		given(signature.getName()).willReturn("pay");
+		given(joinPoint.proceed()).willThrow(new InsufficientPaymentException("insufficient payment"));
+
+		// when
+		try {
+			metricsAspect.countRequest(joinPoint);
+		} catch (InsufficientPaymentException e) {
+			// expected
+		}
+
+		// then
+		assertThat(meterRegistry.get(MetricsAspect.EXCEPTIONS).tag("exception", "InsufficientPaymentException")
+				.counter().count()).isEqualTo(1.0);
+	}
+
+	private static ProceedingJoinPoint repositoryCall() throws Throwable {
+		Signature repositorySignature = mock(Signature.class);
+		given(repositorySignature.getName()).willReturn("findOne");
+		ProceedingJoinPoint repositoryCall = mock(ProceedingJoinPoint.class);
+		given(repositoryCall.getSignature()).willReturn(repositorySignature);
+		given(repositoryCall.getTarget()).willReturn(mock(OrderRepository.class));
+		return repositoryCall;
+	}
+}
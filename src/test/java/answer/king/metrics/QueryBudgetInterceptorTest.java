@@ -0,0 +1,94 @@
+package answer.king.metrics;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+
+public class QueryBudgetInterceptorTest {
+
+	private final QueryCounter queryCounter = new QueryCounter();
+
+	@Test(expected = QueryBudgetExceededException.class)
+	public void postHandleShouldFailWhenBudgetIsExceeded() throws Exception {
+		// Given
+		QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/order");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("withBudgetOfOne");
+		interceptor.preHandle(request, response, handler);
+		queryCounter.inspect("select 1");
+		queryCounter.inspect("select 2");
+
+		// when
+		interceptor.postHandle(request, response, handler, null);
+
+		// then exception
+	}
+
+	@Test
+	public void postHandleShouldPassWithinBudget() throws Exception {
+		// Given
+		QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/order");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("withBudgetOfOne");
+		interceptor.preHandle(request, response, handler);
+		queryCounter.inspect("select 1");
+
+		// when
+		interceptor.postHandle(request, response, handler, null);
+
+		// then no exception
+	}
+
+	@Test
+	public void postHandleShouldOnlyLogWhenNotFailing() throws Exception {
+		// Given
+		QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(false);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/order");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("withBudgetOfOne");
+		interceptor.preHandle(request, response, handler);
+		queryCounter.inspect("select 1");
+		queryCounter.inspect("select 2");
+
+		// when
+		interceptor.postHandle(request, response, handler, null);
+
+		// then no exception
+	}
+
+	@Test(expected = QueryBudgetExceededException.class)
+	public void postHandleShouldCountStatementsRunByAsyncHandler() throws Exception {
+		// Given
+		QueryBudgetInterceptor interceptor = new QueryBudgetInterceptor(true);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/order");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("withBudgetOfOne");
+		ServletWebRequest webRequest = new ServletWebRequest(request, response);
+		Callable<Object> task = () -> null;
+		QueryBudgetCallableInterceptor callableInterceptor = new QueryBudgetCallableInterceptor();
+		callableInterceptor.preProcess(webRequest, task);
+		queryCounter.inspect("select 1");
+		queryCounter.inspect("select 2");
+		callableInterceptor.postProcess(webRequest, task, null);
+		interceptor.preHandle(request, response, handler);
+
+		// when
+		interceptor.postHandle(request, response, handler, null);
+
+		// then exception
+	}
+
+	private HandlerMethod handler(String name) throws NoSuchMethodException {
+		return new HandlerMethod(this, QueryBudgetInterceptorTest.class.getDeclaredMethod(name));
+	}
+
+	@QueryBudget(1)
+	void withBudgetOfOne() {
+	}
+}
@@ -0,0 +1,30 @@
+package answer.king.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class PooledSequenceGeneratorTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void allocationSizeShouldMatchIncrementOfEverySequence() {
+		// when
+		List<Long> increments = jdbcTemplate.queryForList(
+				"select increment from information_schema.sequences where sequence_schema = 'PUBLIC'", Long.class);
+
+		// then
+		assertThat(increments).isNotEmpty().containsOnly((long) PooledSequenceGenerator.ALLOCATION_SIZE);
+	}
+}
@@ -0,0 +1,52 @@
+package answer.king.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "answer.king.replica.url=jdbc:h2:mem:replica")
+public class PersistenceConfigTest {
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	public void readOnlyTransactionShouldRunOnReplica() {
+		// Given
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+
+		// when
+		String database = transactionTemplate.execute(status -> currentDatabase());
+
+		// then
+		assertThat(database).isEqualTo("REPLICA");
+	}
+
+	@Test
+	public void readWriteTransactionShouldRunOnPrimary() {
+		// Given
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		// when
+		String database = transactionTemplate.execute(status -> currentDatabase());
+
+		// then
+		assertThat(database).isEqualTo("TESTDB");
+	}
+
+	private String currentDatabase() {
+		return jdbcTemplate.queryForObject("select database()", String.class);
+	}
+}
@@ -0,0 +1,82 @@
+package answer.king.repo;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.never;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReadOnlyAwareHibernateJpaDialectTest {
+
+	@Mock
+	private EntityManager entityManager;
+
+	@Mock
+	private EntityTransaction transaction;
+
+	@Mock
+	private Session session;
+
+	private ReadOnlyAwareHibernateJpaDialect dialect = new ReadOnlyAwareHibernateJpaDialect();
+
+	@Before
+	public void setUp() {
+		dialect.setPrepareConnection(false);
+		given(entityManager.unwrap(Session.class)).willReturn(session);
+		given(entityManager.getTransaction()).willReturn(transaction);
+		given(session.getFlushMode()).willReturn(FlushMode.AUTO);
+	}
+
+	@Test
+	public void readOnlyTransactionShouldLoadEntitiesReadOnlyWithoutFlushing() throws Exception {
+		// Given
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setReadOnly(true);
+
+		// when
+		dialect.beginTransaction(entityManager, definition);
+
+		// then
+		then(session).should().setDefaultReadOnly(true);
+		then(session).should().setFlushMode(FlushMode.MANUAL);
+	}
+
+	@Test
+	public void cleanupShouldRestoreSessionForLaterWrites() throws Exception {
+		// Given
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setReadOnly(true);
+		Object transactionData = dialect.beginTransaction(entityManager, definition);
+
+		// when
+		dialect.cleanupTransaction(transactionData);
+
+		// then
+		then(session).should().setDefaultReadOnly(false);
+		then(session).should().setFlushMode(FlushMode.AUTO);
+	}
+
+	@Test
+	public void readWriteTransactionShouldLeaveSessionAlone() throws Exception {
+		// Given
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+
+		// when
+		dialect.beginTransaction(entityManager, definition);
+
+		// then
+		then(session).should(never()).setDefaultReadOnly(true);
+		then(session).should(never()).setFlushMode(FlushMode.MANUAL);
+	}
+}
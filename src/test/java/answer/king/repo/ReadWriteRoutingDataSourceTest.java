@@ -0,0 +1,40 @@
+package answer.king.repo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import answer.king.repo.ReadWriteRoutingDataSource.Route;
+
+public class ReadWriteRoutingDataSourceTest {
+
+	private ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource();
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	public void readOnlyTransactionShouldUseReplica() {
+		// Given
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+		// when
+		Object route = dataSource.determineCurrentLookupKey();
+
+		// then
+		assertThat(route).isEqualTo(Route.REPLICA);
+	}
+
+	@Test
+	public void readWriteTransactionShouldUsePrimary() {
+		// when
+		Object route = dataSource.determineCurrentLookupKey();
+
+		// then
+		assertThat(route).isEqualTo(Route.PRIMARY);
+	}
+}
@@ -0,0 +1,157 @@
+package answer.king.service;
+
+import static answer.king.test.TestUtils.money;
+import static answer.king.test.TestUtils.order;
+import static answer.king.test.TestUtils.receipt;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import answer.king.model.PaymentKey;
+import answer.king.model.Receipt;
+import answer.king.repo.PaymentKeyRepository;
+import answer.king.repo.ReceiptRepository;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IdempotencyStoreTest {
+
+	@Mock
+	private PaymentKeyRepository paymentKeyRepository;
+
+	@Mock
+	private ReceiptRepository receiptRepository;
+
+	@InjectMocks
+	private IdempotencyStore idempotencyStore;
+
+	@Captor
+	private ArgumentCaptor<PaymentKey> paymentKeyCaptor;
+
+	@Captor
+	private ArgumentCaptor<Long> cutoffCaptor;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(idempotencyStore, "maxEntries", 2);
+		ReflectionTestUtils.setField(idempotencyStore, "ttlSeconds", 60L);
+	}
+
+	@Test
+	public void getShouldReturnReceiptPutForKey() {
+		// Given
+		Receipt receipt = receipt(1L, order(2L, true), money(10.0));
+		idempotencyStore.put("key", receipt);
+
+		// when
+		Receipt storedReceipt = idempotencyStore.get("key");
+
+		// then
+		assertThat(storedReceipt).isSameAs(receipt);
+		then(paymentKeyRepository).should(never()).findOne(any(String.class));
+	}
+
+	@Test
+	public void getShouldForgetLeastRecentlyUsedKeyWhenFull() {
+		// Given
+		idempotencyStore.put("first", receipt(1L, order(1L, true), money(10.0)));
+		idempotencyStore.put("second", receipt(2L, order(2L, true), money(10.0)));
+		idempotencyStore.get("first");
+
+		// when
+		idempotencyStore.put("third", receipt(3L, order(3L, true), money(10.0)));
+
+		// then
+		assertThat(idempotencyStore.get("first")).isNotNull();
+		assertThat(idempotencyStore.get("second")).isNull();
+		assertThat(idempotencyStore.get("third")).isNotNull();
+	}
+
+	@Test
+	public void getShouldForgetExpiredKeys() {
+		// Given
+		ReflectionTestUtils.setField(idempotencyStore, "ttlSeconds", 0L);
+		idempotencyStore.put("key", receipt(1L, order(2L, true), money(10.0)));
+
+		// when
+		Receipt storedReceipt = idempotencyStore.get("key");
+
+		// then
+		assertThat(storedReceipt).isNull();
+	}
+
+	@Test
+	public void putShouldOnlyRememberKeyInMemory() {
+		// Given
+		ReflectionTestUtils.setField(idempotencyStore, "persistent", true);
+
+		// when
+		idempotencyStore.put("key", receipt(1L, order(2L, true), money(10.0)));
+
+		// then
+		then(paymentKeyRepository).should(never()).save(any(PaymentKey.class));
+	}
+
+	@Test
+	public void persistentStoreShouldRecordKey() {
+		// Given
+		ReflectionTestUtils.setField(idempotencyStore, "persistent", true);
+		Receipt receipt = receipt(1L, order(2L, true), money(10.0));
+
+		// when
+		idempotencyStore.record("key", receipt);
+
+		// then
+		then(paymentKeyRepository).should().save(paymentKeyCaptor.capture());
+		PaymentKey paymentKey = paymentKeyCaptor.getValue();
+		assertThat(paymentKey.getIdempotencyKey()).isEqualTo("key");
+		assertThat(paymentKey.getReceiptId()).isEqualTo(1L);
+	}
+
+	@Test
+	public void persistentStoreShouldFindKeyNotHeldInMemory() {
+		// Given
+		ReflectionTestUtils.setField(idempotencyStore, "persistent", true);
+		PaymentKey paymentKey = new PaymentKey();
+		paymentKey.setIdempotencyKey("key");
+		paymentKey.setReceiptId(1L);
+		paymentKey.setCreatedAt(System.currentTimeMillis());
+		Receipt receipt = receipt(1L, order(2L, true), money(10.0));
+
+		given(paymentKeyRepository.findOne(eq("key"))).willReturn(paymentKey);
+		given(receiptRepository.findOne(eq(1L))).willReturn(receipt);
+
+		// when
+		Receipt storedReceipt = idempotencyStore.get("key");
+
+		// then
+		assertThat(storedReceipt).isSameAs(receipt);
+		then(paymentKeyRepository).should(never()).save(any(PaymentKey.class));
+	}
+
+	@Test
+	public void purgeExpiredShouldDeleteKeysOlderThanTtl() {
+		// Given
+		ReflectionTestUtils.setField(idempotencyStore, "persistent", true);
+		long before = System.currentTimeMillis();
+
+		// when
+		idempotencyStore.purgeExpired();
+
+		// then
+		then(paymentKeyRepository).should().deleteCreatedBefore(cutoffCaptor.capture());
+		assertThat(cutoffCaptor.getValue()).isBetween(before - 60000L, System.currentTimeMillis() - 60000L);
+	}
+}
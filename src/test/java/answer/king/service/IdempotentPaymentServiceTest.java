@@ -0,0 +1,107 @@
+package answer.king.service;
+
+import static answer.king.service.IdempotentPaymentService.storeKey;
+import static answer.king.test.TestUtils.money;
+import static answer.king.test.TestUtils.order;
+import static answer.king.test.TestUtils.receipt;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import answer.king.model.Money;
+import answer.king.model.Receipt;
+
+@RunWith(MockitoJUnitRunner.class)
+public class IdempotentPaymentServiceTest {
+
+	@Mock
+	private OrderService orderService;
+
+	@Mock
+	private IdempotencyStore idempotencyStore;
+
+	@InjectMocks
+	private IdempotentPaymentService idempotentPaymentService;
+
+	@Test
+	public void payWithoutKeyShouldPayOrder() throws Exception {
+		// Given
+		long orderId = 1010L;
+		Receipt receipt = receipt(3030L, order(orderId, true), money(10.0));
+		given(orderService.pay(eq(orderId), eq(money(10.0)))).willReturn(receipt);
+
+		// when
+		Receipt returnedReceipt = idempotentPaymentService.pay(orderId, money(10.0), null);
+
+		// then
+		assertThat(returnedReceipt).isSameAs(receipt);
+		then(idempotencyStore).should(never()).put(anyString(), any(Receipt.class));
+	}
+
+	@Test
+	public void payWithNewKeyShouldPayOrderAndRememberReceipt() throws Exception {
+		// Given
+		long orderId = 1010L;
+		Receipt receipt = receipt(3030L, order(orderId, true), money(10.0));
+		given(orderService.pay(eq(orderId), eq(money(10.0)), eq(storeKey(orderId, "key")))).willReturn(receipt);
+
+		// when
+		Receipt returnedReceipt = idempotentPaymentService.pay(orderId, money(10.0), "key");
+
+		// then
+		assertThat(returnedReceipt).isSameAs(receipt);
+		then(idempotencyStore).should().put(eq(storeKey(orderId, "key")), eq(receipt));
+	}
+
+	@Test
+	public void payWithRepeatedKeyShouldReturnRememberedReceiptWithoutPaying() throws Exception {
+		// Given
+		long orderId = 1010L;
+		Receipt receipt = receipt(3030L, order(orderId, true), money(10.0));
+		given(idempotencyStore.get(eq(storeKey(orderId, "key")))).willReturn(receipt);
+
+		// when
+		Receipt returnedReceipt = idempotentPaymentService.pay(orderId, money(10.0), "key");
+
+		// then
+		assertThat(returnedReceipt).isSameAs(receipt);
+		then(orderService).should(never()).pay(anyLong(), any(Money.class), anyString());
+	}
+
+	@Test(expected = InsufficientPaymentException.class)
+	public void payWithKeyShouldPassOnInsufficientPayment() throws Exception {
+		// Given
+		long orderId = 1010L;
+		given(orderService.pay(eq(orderId), eq(money(1.0)), eq(storeKey(orderId, "key"))))
+				.willThrow(new InsufficientPaymentException("insufficient payment"));
+
+		// when
+		idempotentPaymentService.pay(orderId, money(1.0), "key");
+
+		// then exception
+	}
+
+	@Test
+	public void storeKeyShouldFitColumnWhateverTheLengthOfTheClientKey() {
+		// Given
+		String longKey = new String(new char[10000]).replace('\0', 'k');
+
+		// when
+		String key = storeKey(1010L, longKey);
+
+		// then
+		assertThat(key).startsWith("1010:").hasSize(5 + 43);
+		assertThat(key).isEqualTo(storeKey(1010L, longKey)).isNotEqualTo(storeKey(1010L, "k"));
+	}
+}
@@ -0,0 +1,178 @@
+package answer.king.service;
+
+import static answer.king.test.TestUtils.itemView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.util.Lists.newArrayList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import answer.king.repo.ItemRepository;
+import answer.king.view.ItemView;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ItemCatalogueTest {
+
+	@Mock
+	private ItemRepository itemRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private ItemCatalogue itemCatalogue;
+
+	@Captor
+	private ArgumentCaptor<TransactionDefinition> definitionCaptor;
+
+	@After
+	public void tearDown() {
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+	}
+
+	@Test
+	public void getAllShouldLoadCatalogueOnceAndServeFromMemory() {
+		// Given
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)));
+
+		// when
+		itemCatalogue.getAll();
+		List<ItemView> items = itemCatalogue.getAll();
+
+		// then
+		assertThat(items).usingFieldByFieldElementComparator().containsExactly(itemView(1010L, "itemName", 10.0));
+		then(itemRepository).should(times(1)).findAllViews();
+		assertThat(itemCatalogue.getMisses()).isEqualTo(1);
+		assertThat(itemCatalogue.getHits()).isEqualTo(1);
+	}
+
+	@Test
+	public void findOneShouldServeItemFromCatalogue() {
+		// Given
+		long itemId = 1010L;
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(itemId, "itemName", 10.0)));
+		itemCatalogue.getAll();
+
+		// when
+		ItemView item = itemCatalogue.findOne(itemId);
+
+		// then
+		assertThat(item).isEqualToComparingFieldByField(itemView(itemId, "itemName", 10.0));
+		then(itemRepository).should(never()).findViews(anyCollectionOf(Long.class));
+		assertThat(itemCatalogue.getHits()).isEqualTo(1);
+	}
+
+	@Test
+	public void findOneShouldFallBackToRepositoryForUnknownItem() {
+		// Given
+		long itemId = 2020L;
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)));
+		given(itemRepository.findViews(anyCollectionOf(Long.class)))
+				.willReturn(newArrayList(itemView(itemId, "newItem", 5.0)));
+
+		// when
+		ItemView item = itemCatalogue.findOne(itemId);
+
+		// then
+		assertThat(item).isEqualToComparingFieldByField(itemView(itemId, "newItem", 5.0));
+		assertThat(itemCatalogue.getMisses()).isEqualTo(1);
+	}
+
+	@Test
+	public void findAllShouldServeKnownItemsAndReadUnknownItemsInOneQuery() {
+		// Given
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)));
+		given(itemRepository.findViews(eq(newArrayList(2020L, 3030L))))
+				.willReturn(newArrayList(itemView(2020L, "newItem", 5.0)));
+
+		// when
+		Map<Long, ItemView> items = itemCatalogue.findAll(newArrayList(1010L, 2020L, 3030L));
+
+		// then
+		assertThat(items).containsOnlyKeys(1010L, 2020L);
+		assertThat(items.get(2020L)).isEqualToComparingFieldByField(itemView(2020L, "newItem", 5.0));
+		then(itemRepository).should(times(1)).findViews(eq(newArrayList(2020L, 3030L)));
+	}
+
+	@Test
+	public void invalidateShouldReloadCatalogueOnNextRead() {
+		// Given
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)))
+				.willReturn(newArrayList(itemView(1010L, "itemName", 15.0)));
+		itemCatalogue.getAll();
+
+		// when
+		itemCatalogue.invalidate();
+		List<ItemView> items = itemCatalogue.getAll();
+
+		// then
+		assertThat(items).usingFieldByFieldElementComparator().containsExactly(itemView(1010L, "itemName", 15.0));
+		then(itemRepository).should(times(2)).findAllViews();
+	}
+
+	@Test
+	public void getSnapshotShouldCarryVersionFromBeforeChangeCommittedWhileLoading() {
+		// Given
+		willAnswer(invocation -> {
+			itemCatalogue.evict();
+			return newArrayList(itemView(1010L, "itemName", 10.0));
+		}).given(itemRepository).findAllViews();
+
+		// when
+		ItemCatalogue.Snapshot snapshot = itemCatalogue.getSnapshot();
+
+		// then
+		assertThat(snapshot.getVersion()).isEqualTo(0L);
+		assertThat(itemCatalogue.getVersion()).isEqualTo(1L);
+	}
+
+	@Test
+	public void getAllShouldReloadFromPrimaryWhenCalledInReadOnlyTransaction() {
+		// Given
+		TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)));
+
+		// when
+		itemCatalogue.getAll();
+
+		// then
+		then(transactionManager).should().getTransaction(definitionCaptor.capture());
+		TransactionDefinition definition = definitionCaptor.getValue();
+		assertThat(definition.isReadOnly()).isFalse();
+		assertThat(definition.getPropagationBehavior()).isEqualTo(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		then(itemRepository).should().findAllViews();
+	}
+
+	@Test
+	public void getAllShouldReloadInCurrentTransactionWhenNotReadOnly() {
+		// Given
+		given(itemRepository.findAllViews()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)));
+
+		// when
+		itemCatalogue.getAll();
+
+		// then
+		then(transactionManager).should(never()).getTransaction(any(TransactionDefinition.class));
+		then(itemRepository).should().findAllViews();
+	}
+}
@@ -0,0 +1,123 @@
+package answer.king.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.times;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import answer.king.model.Item;
+import answer.king.model.Money;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ItemImporterTest {
+
+	@Mock
+	private ItemService itemService;
+
+	@Spy
+	private ItemValidator itemValidator = new ItemValidator();
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	@InjectMocks
+	private ItemImporter itemImporter;
+
+	private final List<List<Item>> savedBatches = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(itemImporter, "batchSize", 2);
+		ReflectionTestUtils.setField(itemImporter, "maxErrors", 10);
+		// the importer reuses its batch list, so copy what each call was given
+		willAnswer(invocation -> {
+			savedBatches.add(copyOfBatch(invocation.getArguments()[0]));
+			return null;
+		}).given(itemService).saveBatch(anyListOf(Item.class));
+	}
+
+	@Test
+	public void importJsonShouldSaveItemsInBatches() throws Exception {
+		// when
+		ImportResult result = itemImporter.importJson(body(
+				"[{\"name\":\"burger\",\"price\":3.5},{\"name\":\"fries\",\"price\":\"1.20\"},{\"name\":\"cola\",\"price\":1}]"));
+
+		// then
+		assertThat(result.getImported()).isEqualTo(3);
+		assertThat(result.getRejected()).isEqualTo(0);
+		then(itemService).should(times(2)).saveBatch(anyListOf(Item.class));
+		assertThat(savedBatches).extracting(List::size).containsExactly(2, 1);
+		assertThat(savedBatches.get(0)).extracting("name", "price").containsExactly(
+				tuple("burger", Money.ofMinorUnits(350)), tuple("fries", Money.ofMinorUnits(120)));
+	}
+
+	@Test
+	public void importJsonShouldReportInvalidRowsAndImportTheRest() throws Exception {
+		// when
+		ImportResult result = itemImporter.importJson(body(
+				"[{\"name\":\"burger\",\"price\":3.5},{\"price\":1},{\"name\":\"fries\",\"price\":\"cheap\"},"
+						+ "{\"name\":\"cola\",\"price\":-1},{\"name\":\"shake\",\"price\":2}]"));
+
+		// then
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getRejected()).isEqualTo(3);
+		assertThat(result.getErrors()).extracting("row").containsExactly(2L, 3L, 4L);
+		assertThat(result.getErrors().get(0).getError()).isEqualTo("item name must be provided");
+		assertThat(result.getErrors().get(2).getError()).isEqualTo("item price cannot be negative");
+		assertThat(savedBatches).hasSize(1);
+		assertThat(savedBatches.get(0)).extracting("name").containsExactly("burger", "shake");
+	}
+
+	@Test
+	public void importJsonShouldStopAtUnreadableInputKeepingEarlierRows() throws Exception {
+		// when
+		ImportResult result = itemImporter.importJson(body("[{\"name\":\"burger\",\"price\":3.5},{\"name\":"));
+
+		// then
+		assertThat(result.getImported()).isEqualTo(1);
+		assertThat(result.getErrors()).extracting("row").containsExactly(2L);
+	}
+
+	@Test
+	public void importCsvShouldReadColumnsByHeader() throws Exception {
+		// when
+		ImportResult result = itemImporter.importCsv(body("price,name\n3.50,burger\n1.20,fries\n,cola\n"));
+
+		// then
+		assertThat(result.getImported()).isEqualTo(2);
+		assertThat(result.getErrors()).extracting("row").containsExactly(3L);
+		assertThat(savedBatches.get(0)).extracting("name", "price").containsExactly(
+				tuple("burger", Money.ofMinorUnits(350)), tuple("fries", Money.ofMinorUnits(120)));
+	}
+
+	private static List<Item> copyOfBatch(Object batch) {
+		List<Item> copy = new ArrayList<>();
+		for (Object item : (List<?>) batch) {
+			copy.add((Item) item);
+		}
+		return copy;
+	}
+
+	private static InputStream body(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
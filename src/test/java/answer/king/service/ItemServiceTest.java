@@ -1,25 +1,34 @@
 package answer.king.service;
 
 import static answer.king.test.TestUtils.item;
+import static answer.king.test.TestUtils.itemView;
+import static answer.king.test.TestUtils.money;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.util.Lists.newArrayList;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.refEq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
 
-import java.math.BigDecimal;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import answer.king.model.Item;
+import answer.king.model.PriceChange;
 import answer.king.repo.ItemRepository;
+import answer.king.view.ItemView;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ItemServiceTest {
@@ -30,19 +39,25 @@ public class ItemServiceTest {
 	@Mock
 	private ItemValidator itemValidator;
 
+	@Mock
+	private ItemCatalogue itemCatalogue;
+
+	@Mock
+	private EntityManager entityManager;
+
 	@InjectMocks
 	private ItemService itemService;
 
 	@Test
-	public void findAllShouldReturnAllItemsFromRepository() {
+	public void findAllShouldReturnAllItemsFromCatalogue() {
 		// Given
-		given(itemRepository.findAll()).willReturn(newArrayList(item(1010L, "itemName", 10.0)));
+		given(itemCatalogue.getAll()).willReturn(newArrayList(itemView(1010L, "itemName", 10.0)));
 
 		// when
-		List<Item> items = itemService.getAll();
+		List<ItemView> items = itemService.getAll();
 
 		// then
-		assertThat(items).usingFieldByFieldElementComparator().containsExactly(item(1010L, "itemName", 10.0));
+		assertThat(items).usingFieldByFieldElementComparator().containsExactly(itemView(1010L, "itemName", 10.0));
 	}
 
 	@Test
@@ -58,6 +73,7 @@ public class ItemServiceTest {
 
 		// then
 		assertThat(returnedItem).isEqualToComparingFieldByField(itemUpdatedWithId);
+		then(itemCatalogue).should().invalidate();
 	}
 
 	@Test(expected = InvalidItemException.class)
@@ -82,11 +98,12 @@ public class ItemServiceTest {
 		given(itemRepository.save(refEq(expectedItem))).willReturn(expectedItem);
 
 		// when
-		Item returnedItem = itemService.updatePrice(itemId, BigDecimal.valueOf(newPrice));
+		Item returnedItem = itemService.updatePrice(itemId, money(newPrice));
 
 		// then
 		then(itemRepository).should().save(refEq(expectedItem));
 		assertThat(returnedItem).isEqualToComparingFieldByField(expectedItem);
+		then(itemCatalogue).should().invalidate();
 	}
 
 	@Test(expected = InvalidItemException.class)
@@ -99,7 +116,65 @@ public class ItemServiceTest {
 				.validate(refEq(item(itemId, "itemName", invalidPrice)));
 
 		// when
-		itemService.updatePrice(itemId, BigDecimal.valueOf(invalidPrice));
+		itemService.updatePrice(itemId, money(invalidPrice));
+
+		// then exception
+	}
+
+	@Test
+	public void saveBatchShouldSaveItemsAndReleaseThemFromPersistenceContext() {
+		// Given
+		List<Item> items = newArrayList(item(null, "burger", 3.5), item(null, "fries", 1.2));
+
+		// when
+		itemService.saveBatch(items);
+
+		// then
+		InOrder inOrder = inOrder(itemRepository, entityManager);
+		inOrder.verify(itemRepository).save(items);
+		inOrder.verify(entityManager).flush();
+		inOrder.verify(entityManager).clear();
+		then(itemCatalogue).should().invalidate();
+	}
+
+	@Test(expected = ItemNotFoundException.class)
+	public void updatePriceShouldFailWhenItemDoesNotExist() throws Exception {
+		// Given
+		given(itemRepository.findOne(eq(3030L))).willReturn(null);
+
+		// when
+		itemService.updatePrice(3030L, money(15.0));
+	}
+
+	@Test
+	public void updatePricesShouldRepriceFoundItemsAndReportMissingIds() throws Exception {
+		// Given
+		Item burger = item(1010L, "burger", 3.5);
+		Item fries = item(2020L, "fries", 1.2);
+		given(itemRepository.findAll(anyCollectionOf(Long.class))).willReturn(newArrayList(burger, fries));
+
+		// when
+		RepriceResult result = itemService.updatePrices(newArrayList(new PriceChange(1010L, money(4.0)),
+				new PriceChange(3030L, money(2.0)), new PriceChange(2020L, money(1.5))));
+
+		// then
+		assertThat(burger.getPrice()).isEqualTo(money(4.0));
+		assertThat(fries.getPrice()).isEqualTo(money(1.5));
+		then(itemRepository).should().save(newArrayList(burger, fries));
+		then(itemCatalogue).should(times(1)).invalidate();
+		assertThat(result.getUpdated()).isEqualTo(2);
+		assertThat(result.getMissingItemIds()).containsExactly(3030L);
+	}
+
+	@Test(expected = InvalidItemException.class)
+	public void updatePricesShouldFailWhenAPriceIsInvalid() throws Exception {
+		// Given
+		given(itemRepository.findAll(anyCollectionOf(Long.class))).willReturn(newArrayList(item(1010L, "burger", 3.5)));
+		doThrow(new InvalidItemException("item price cannot be negative")).when(itemValidator)
+				.validate(refEq(item(1010L, "burger", -1.0)));
+
+		// when
+		itemService.updatePrices(newArrayList(new PriceChange(1010L, money(-1.0))));
 
 		// then exception
 	}
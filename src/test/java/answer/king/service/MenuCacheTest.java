@@ -0,0 +1,106 @@
+package answer.king.service;
+
+import static answer.king.test.TestUtils.itemView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.util.Lists.newArrayList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MenuCacheTest {
+
+	@Mock
+	private ItemCatalogue itemCatalogue;
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	@InjectMocks
+	private MenuCache menuCache;
+
+	@Test
+	public void getMenuShouldSerialiseOncePerCatalogueVersion() {
+		// Given
+		given(itemCatalogue.getVersion()).willReturn(3L);
+		given(itemCatalogue.getSnapshot()).willReturn(snapshot(3L, 10.0));
+
+		// when
+		Menu first = menuCache.getMenu();
+		Menu second = menuCache.getMenu();
+
+		// then
+		assertThat(second).isSameAs(first);
+		assertThat(first.getVersion()).isEqualTo(3L);
+		then(itemCatalogue).should(times(1)).getSnapshot();
+	}
+
+	@Test
+	public void getMenuShouldRebuildWhenCatalogueVersionChanges() {
+		// Given
+		given(itemCatalogue.getVersion()).willReturn(3L, 4L);
+		given(itemCatalogue.getSnapshot()).willReturn(snapshot(3L, 10.0)).willReturn(snapshot(4L, 15.0));
+
+		// when
+		Menu first = menuCache.getMenu();
+		Menu second = menuCache.getMenu();
+
+		// then
+		assertThat(second.getVersion()).isEqualTo(4L);
+		assertThat(second.getETag()).isNotEqualTo(first.getETag());
+		then(itemCatalogue).should(times(2)).getSnapshot();
+	}
+
+	@Test
+	public void getMenuShouldRebuildWhenBuiltFromSnapshotOlderThanCatalogueVersion() {
+		// Given
+		given(itemCatalogue.getVersion()).willReturn(4L);
+		given(itemCatalogue.getSnapshot()).willReturn(snapshot(3L, 10.0)).willReturn(snapshot(4L, 15.0));
+
+		// when
+		Menu first = menuCache.getMenu();
+		Menu second = menuCache.getMenu();
+		Menu third = menuCache.getMenu();
+
+		// then
+		assertThat(first.getVersion()).isEqualTo(3L);
+		assertThat(second.getVersion()).isEqualTo(4L);
+		assertThat(third).isSameAs(second);
+		then(itemCatalogue).should(times(2)).getSnapshot();
+	}
+
+	@Test
+	public void getMenuShouldHoldJsonAndItsGzipCompression() throws IOException {
+		// Given
+		given(itemCatalogue.getSnapshot()).willReturn(snapshot(0L, 10.0));
+
+		// when
+		Menu menu = menuCache.getMenu();
+
+		// then
+		assertThat(new String(menu.getJson(), "UTF-8"))
+				.isEqualTo("[{\"id\":1010,\"name\":\"itemName\",\"price\":10.00}]");
+		assertThat(StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(menu.getGzip()))))
+				.isEqualTo(menu.getJson());
+		assertThat(menu.getETag()).startsWith("\"menu-").endsWith("\"");
+		assertThat(menu.getGzipETag()).isNotEqualTo(menu.getETag());
+	}
+
+	private static ItemCatalogue.Snapshot snapshot(long version, double price) {
+		return new ItemCatalogue.Snapshot(newArrayList(itemView(1010L, "itemName", price)), version);
+	}
+}
@@ -0,0 +1,83 @@
+package answer.king.service;
+
+import static answer.king.test.TestUtils.money;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.util.Lists.newArrayList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+
+import answer.king.repo.OrderRepository;
+import answer.king.view.OrderLineRow;
+import answer.king.view.OrderView;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderQueryServiceTest {
+
+	@Mock
+	private OrderRepository orderRepository;
+
+	@InjectMocks
+	private OrderQueryService orderQueryService;
+
+	@Test
+	public void getPageShouldFoldLineRowsIntoOrdersAfterCursor() {
+		// Given
+		long after = 1000L;
+		List<Long> ids = newArrayList(1010L, 1020L);
+		given(orderRepository.findIdsAfter(eq(after), eq(new PageRequest(0, 10)))).willReturn(ids);
+		given(orderRepository.findLineRows(eq(ids))).willReturn(newArrayList(
+				new OrderLineRow(1010L, false, 3030L, "burger", money(4.5), 2),
+				new OrderLineRow(1010L, false, 3031L, "fries", money(1.5), 1),
+				new OrderLineRow(1020L, true, null, null, null, null)));
+
+		// when
+		List<OrderView> orders = orderQueryService.getPage(after, 10);
+
+		// then
+		assertThat(orders).extracting("id", "paid").containsExactly(tuple(1010L, false), tuple(1020L, true));
+		assertThat(orders.get(0).getLineItems()).extracting("id", "name", "quantity").containsExactly(
+				tuple(3030L, "burger", 2),
+				tuple(3031L, "fries", 1));
+		assertThat(orders.get(1).getLineItems()).isEmpty();
+	}
+
+	@Test
+	public void getPageShouldStartFromFirstOrderWithDefaultPageSize() {
+		// Given
+		given(orderRepository.findIdsAfter(eq(0L), eq(new PageRequest(0, OrderQueryService.DEFAULT_PAGE_SIZE))))
+				.willReturn(newArrayList());
+
+		// when
+		List<OrderView> orders = orderQueryService.getPage(null, null);
+
+		// then
+		assertThat(orders).isEmpty();
+		then(orderRepository).should(never()).findLineRows(anyCollectionOf(Long.class));
+	}
+
+	@Test
+	public void getPageShouldCapPageSize() {
+		// Given
+		given(orderRepository.findIdsAfter(eq(0L), eq(new PageRequest(0, OrderQueryService.MAX_PAGE_SIZE))))
+				.willReturn(newArrayList());
+
+		// when
+		orderQueryService.getPage(null, OrderQueryService.MAX_PAGE_SIZE + 1);
+
+		// then
+		then(orderRepository).should().findIdsAfter(eq(0L), eq(new PageRequest(0, OrderQueryService.MAX_PAGE_SIZE)));
+	}
+}
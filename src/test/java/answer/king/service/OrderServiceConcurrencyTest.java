@@ -0,0 +1,140 @@
+package answer.king.service;
+
+import static answer.king.test.TestUtils.item;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import answer.king.model.Money;
+import answer.king.model.Order;
+import answer.king.model.Receipt;
+import answer.king.repo.OrderRepository;
+import answer.king.view.LineItemView;
+import answer.king.view.OrderView;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "answer.king.retry.max-attempts=100", "spring.jpa.show-sql=false" })
+public class OrderServiceConcurrencyTest {
+
+	private static final int THREADS = 8;
+
+	private static final int ADDS_PER_THREAD = 25;
+
+	private static final int ADDS_BEFORE_PAYMENT = 50;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ItemService itemService;
+
+	@Autowired
+	private OrderQueryService orderQueryService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Test
+	public void concurrentAddItemShouldNotLoseQuantityUpdates() throws Exception {
+		// Given
+		Long itemId = itemService.save(item(null, "itemName", 1.5)).getId();
+		Long orderId = orderService.save(new Order()).getId();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> results = new ArrayList<>();
+
+		// when
+		try {
+			for (int thread = 0; thread < THREADS; thread++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int add = 0; add < ADDS_PER_THREAD; add++) {
+						orderService.addItem(orderId, itemId, 1);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// then
+		OrderView order = orderQueryService.getPage(orderId - 1, 1).get(0);
+		assertThat(order.getId()).isEqualTo(orderId);
+		assertThat(order.getLineItems()).hasSize(1);
+
+		LineItemView lineItem = order.getLineItems().get(0);
+		assertThat(lineItem.getQuantity()).isEqualTo(THREADS * ADDS_PER_THREAD);
+		assertThat(orderRepository.findOne(orderId).getTotal()).isEqualTo(150L * THREADS * ADDS_PER_THREAD);
+	}
+
+	@Test
+	public void payRacingAddItemShouldReceiptEveryItemAddedToTheOrder() throws Exception {
+		// Given
+		Long itemId = itemService.save(item(null, "itemName", 1.5)).getId();
+		Long orderId = orderService.save(new Order()).getId();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger adds = new AtomicInteger();
+		List<Future<?>> results = new ArrayList<>();
+		Future<Receipt> payment;
+
+		// when
+		try {
+			for (int thread = 0; thread < THREADS; thread++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					for (int add = 0; add < ADDS_PER_THREAD; add++) {
+						try {
+							orderService.addItem(orderId, itemId, 1);
+						} catch (OrderAlreadyPaidException e) {
+							return null;
+						}
+						adds.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			payment = executor.submit(() -> {
+				start.await();
+				while (adds.get() < ADDS_BEFORE_PAYMENT) {
+					Thread.yield();
+				}
+				return orderService.pay(orderId, Money.ofMinorUnits(150L * THREADS * ADDS_PER_THREAD));
+			});
+			start.countDown();
+			for (Future<?> result : results) {
+				result.get();
+			}
+			payment.get();
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// then
+		OrderView order = orderQueryService.getPage(orderId - 1, 1).get(0);
+		LineItemView lineItem = order.getLineItems().get(0);
+		long total = orderRepository.findOne(orderId).getTotal();
+		assertThat(lineItem.getQuantity()).isEqualTo(adds.get());
+		assertThat(total).isEqualTo(150L * adds.get());
+		assertThat(payment.get().getTotal()).isEqualTo(Money.ofMinorUnits(total));
+	}
+}
@@ -1,20 +1,28 @@
 package answer.king.service;
 
 import static answer.king.test.TestUtils.item;
+import static answer.king.test.TestUtils.itemView;
 import static answer.king.test.TestUtils.lineItem;
+import static answer.king.test.TestUtils.money;
 import static answer.king.test.TestUtils.order;
 import static answer.king.test.TestUtils.receipt;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.assertj.core.util.Lists.newArrayList;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Matchers.refEq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
-import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -23,15 +31,21 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.ApplicationEventPublisher;
 
+import answer.king.event.OrderEvent;
+import answer.king.event.PaymentEventPipeline;
+import answer.king.model.BasketItem;
 import answer.king.model.Item;
 import answer.king.model.LineItem;
+import answer.king.model.Money;
 import answer.king.model.Order;
 import answer.king.model.Receipt;
 import answer.king.repo.ItemRepository;
 import answer.king.repo.LineItemRepository;
 import answer.king.repo.OrderRepository;
 import answer.king.repo.ReceiptRepository;
+import answer.king.view.ItemView;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OrderServiceTest {
@@ -48,6 +62,18 @@ public class OrderServiceTest {
 	@Mock
 	private LineItemRepository lineItemRepository;
 
+	@Mock
+	private ItemCatalogue itemCatalogue;
+
+	@Mock
+	private IdempotencyStore idempotencyStore;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
+	@Mock
+	private PaymentEventPipeline paymentEventPipeline;
+
 	@InjectMocks
 	private OrderService orderService;
 
@@ -60,18 +86,11 @@ public class OrderServiceTest {
 	@Captor
 	private ArgumentCaptor<LineItem> lineItemCaptor;
 
-	@Test
-	public void getAllShouldFindAllOrdersInRepository() {
-		// Given
-		long orderId = 1010L;
-		given(orderRepository.findAll()).willReturn(newArrayList(order(orderId, false)));
-
-		// when
-		List<Order> orders = orderService.getAll();
+	@Captor
+	private ArgumentCaptor<List<LineItem>> lineItemsCaptor;
 
-		// then
-		assertThat(orders).usingFieldByFieldElementComparator().containsExactly(order(orderId, false));
-	}
+	@Captor
+	private ArgumentCaptor<OrderEvent> eventCaptor;
 
 	@Test
 	public void saveShouldSaveOrderToRepositoryAndReturnOrderUpdatedWithId() throws Exception {
@@ -86,23 +105,28 @@ public class OrderServiceTest {
 
 		// then
 		assertThat(returnedOrder).isEqualToComparingFieldByField(orderUpdatedWithId);
+
+		then(eventPublisher).should().publishEvent(eventCaptor.capture());
+		assertThat(eventCaptor.getValue().getType()).isEqualTo(OrderEvent.Type.CREATED);
+		assertThat(eventCaptor.getValue().getOrderId()).isEqualTo(3L);
 	}
 
 	@Test
-	public void addItemShouldCreateLineItemAndAttachToOrderInRepository() {
+	public void addItemShouldCreateLineItemWhenOrderHasNoLineForItem() throws Exception {
 		// Given
 		long orderId = 1010L;
 		long itemId = 2020L;
-		long lineItemId = 3030L;
 		int quantity = 22;
 
 		Order order = order(orderId, false);
 		Item item = item(itemId, "itemName", 10.0);
-		LineItem persistedLineItem = lineItem(lineItemId, item, quantity);
 
-		given(orderRepository.findOne(eq(orderId))).willReturn(order);
-		given(itemRepository.findOne(eq(itemId))).willReturn(item);
-		given(lineItemRepository.save(any(LineItem.class))).willReturn(persistedLineItem);
+		given(itemCatalogue.findOne(eq(itemId))).willReturn(itemView(itemId, "itemName", 10.0));
+		given(lineItemRepository.addQuantity(eq(orderId), eq(itemId), eq(1000L), eq(quantity))).willReturn(0);
+		given(lineItemRepository.findPrice(eq(orderId), eq(itemId))).willReturn(null);
+		given(orderRepository.getOne(eq(orderId))).willReturn(order);
+		given(itemRepository.getOne(eq(itemId))).willReturn(item);
+		given(orderRepository.addToTotal(eq(orderId), eq(1000L * quantity))).willReturn(1);
 
 		// when
 		orderService.addItem(orderId, itemId, quantity);
@@ -112,49 +136,228 @@ public class OrderServiceTest {
 		LineItem savedLineItem = lineItemCaptor.getValue();
 		assertThat(savedLineItem.getId()).isNull();
 		assertThat(savedLineItem.getName()).isEqualTo("itemName");
-		assertThat(savedLineItem.getPrice()).isEqualByComparingTo(BigDecimal.TEN);
+		assertThat(savedLineItem.getPrice()).isEqualTo(money(10.0));
 		assertThat(savedLineItem.getQuantity()).isEqualTo(quantity);
 		assertThat(savedLineItem.getItem()).isSameAs(item);
 		assertThat(savedLineItem.getOrder()).isSameAs(order);
 
-		then(orderRepository).should().save(orderCaptor.capture());
-		Order savedOrder = orderCaptor.getValue();
-		assertThat(savedOrder).isSameAs(order);
-		assertThat(savedOrder.getLineItems()).hasSize(1);
-		assertThat(savedOrder.getLineItems().get(0)).isSameAs(persistedLineItem);
+		then(orderRepository).should().addToTotal(orderId, 1000L * quantity);
+		then(orderRepository).should(never()).findOne(anyLong());
+		then(orderRepository).should(never()).save(any(Order.class));
+
+		then(eventPublisher).should().publishEvent(eventCaptor.capture());
+		OrderEvent event = eventCaptor.getValue();
+		assertThat(event.getType()).isEqualTo(OrderEvent.Type.ITEM_ADDED);
+		assertThat(event.getOrderId()).isEqualTo(orderId);
+		assertThat(event.getItemId()).isEqualTo(itemId);
+		assertThat(event.getQuantity()).isEqualTo(quantity);
+		assertThat(event.getAmount()).isEqualTo(Money.ofMinorUnits(1000L * quantity));
 	}
 
 	@Test
-	public void addItemShouldAddQuantityToExistingLineItem() {
+	public void addItemShouldAddQuantityToExistingLineItemInPlace() throws Exception {
 		// Given
 		long orderId = 1010L;
 		long itemId = 2020L;
-		long lineItemId = 3030L;
-		int existingQuantity = 11;
 		int newQuantity = 22;
 
-		Item item = item(itemId, "itemName", 10.0);
-		LineItem lineItem = lineItem(lineItemId, item, existingQuantity);
-		Order order = order(orderId, false, lineItem);
+		given(itemCatalogue.findOne(eq(itemId))).willReturn(itemView(itemId, "itemName", 10.0));
+		given(lineItemRepository.addQuantity(eq(orderId), eq(itemId), eq(1000L), eq(newQuantity))).willReturn(1);
+		given(orderRepository.addToTotal(eq(orderId), eq(1000L * newQuantity))).willReturn(1);
 
-		given(orderRepository.findOne(eq(orderId))).willReturn(order);
-		given(itemRepository.findOne(eq(itemId))).willReturn(item);
+		// when
+		orderService.addItem(orderId, itemId, newQuantity);
+
+		// then
+		then(orderRepository).should().addToTotal(orderId, 1000L * newQuantity);
+		then(lineItemRepository).should(never()).findPrice(anyLong(), anyLong());
+		then(orderRepository).should(never()).findOne(anyLong());
+		then(orderRepository).should(never()).save(any(Order.class));
+		then(lineItemRepository).should(never()).save(any(LineItem.class));
+
+		then(eventPublisher).should().publishEvent(eventCaptor.capture());
+		OrderEvent event = eventCaptor.getValue();
+		assertThat(event.getType()).isEqualTo(OrderEvent.Type.ITEM_ADDED);
+		assertThat(event.getItemId()).isEqualTo(itemId);
+		assertThat(event.getQuantity()).isEqualTo(newQuantity);
+		assertThat(event.getAmount()).isEqualTo(Money.ofMinorUnits(1000L * newQuantity));
+	}
+
+	@Test
+	public void addItemShouldKeepPriceOfLineAddedBeforeItemWasRepriced() throws Exception {
+		// Given
+		long orderId = 1010L;
+		long itemId = 2020L;
+		int newQuantity = 2;
+
+		given(itemCatalogue.findOne(eq(itemId))).willReturn(itemView(itemId, "itemName", 10.0));
+		given(lineItemRepository.addQuantity(eq(orderId), eq(itemId), eq(1000L), eq(newQuantity))).willReturn(0);
+		given(lineItemRepository.findPrice(eq(orderId), eq(itemId))).willReturn(800L);
+		given(lineItemRepository.addQuantity(eq(orderId), eq(itemId), eq(800L), eq(newQuantity))).willReturn(1);
+		given(orderRepository.addToTotal(eq(orderId), eq(1600L))).willReturn(1);
 
 		// when
 		orderService.addItem(orderId, itemId, newQuantity);
 
 		// then
-		then(lineItemRepository).should().save(lineItemCaptor.capture());
-		LineItem savedLineItem = lineItemCaptor.getValue();
-		assertThat(savedLineItem).isSameAs(lineItem);
-		assertThat(savedLineItem.getQuantity()).isEqualTo(existingQuantity + newQuantity);
-		assertThat(savedLineItem.getId()).isEqualTo(lineItemId);
-		assertThat(savedLineItem.getName()).isEqualTo("itemName");
-		assertThat(savedLineItem.getPrice()).isEqualByComparingTo(BigDecimal.TEN);
-		assertThat(savedLineItem.getItem()).isSameAs(item);
-		assertThat(savedLineItem.getOrder()).isSameAs(order);
+		then(lineItemRepository).should().addQuantity(orderId, itemId, 800L, newQuantity);
+		then(lineItemRepository).should(never()).save(any(LineItem.class));
+		then(orderRepository).should().addToTotal(orderId, 1600L);
 
-		then(orderRepository).should(never()).save(any(Order.class));
+		then(eventPublisher).should().publishEvent(eventCaptor.capture());
+		assertThat(eventCaptor.getValue().getAmount()).isEqualTo(Money.ofMinorUnits(1600L));
+	}
+
+	@Test(expected = OrderAlreadyPaidException.class)
+	public void addItemShouldFailIfOrderIsAlreadyPaid() throws Exception {
+		// Given
+		long orderId = 1010L;
+		long itemId = 2020L;
+
+		given(itemCatalogue.findOne(eq(itemId))).willReturn(itemView(itemId, "itemName", 10.0));
+		given(lineItemRepository.addQuantity(eq(orderId), eq(itemId), eq(1000L), eq(1))).willReturn(1);
+		given(orderRepository.addToTotal(eq(orderId), eq(1000L))).willReturn(0);
+		given(orderRepository.exists(eq(orderId))).willReturn(true);
+
+		// when
+		orderService.addItem(orderId, itemId, 1);
+
+		// then exception
+	}
+
+	@Test
+	public void addItemShouldFailWithoutWritingLineIfOrderDoesNotExist() throws Exception {
+		// Given
+		long orderId = 1010L;
+		long itemId = 2020L;
+
+		given(itemCatalogue.findOne(eq(itemId))).willReturn(itemView(itemId, "itemName", 10.0));
+		given(lineItemRepository.addQuantity(eq(orderId), eq(itemId), eq(1000L), eq(1))).willReturn(0);
+		given(lineItemRepository.findPrice(eq(orderId), eq(itemId))).willReturn(null);
+		given(orderRepository.addToTotal(eq(orderId), eq(1000L))).willReturn(0);
+		given(orderRepository.exists(eq(orderId))).willReturn(false);
+
+		// when
+		Throwable thrown = catchThrowable(() -> orderService.addItem(orderId, itemId, 1));
+
+		// then
+		assertThat(thrown).isInstanceOf(OrderNotFoundException.class).hasMessage("order 1010 does not exist");
+		then(lineItemRepository).should(never()).save(any(LineItem.class));
+		then(eventPublisher).should(never()).publishEvent(any(OrderEvent.class));
+	}
+
+	@Test(expected = InvalidItemException.class)
+	public void addItemShouldFailIfItemDoesNotExist() throws Exception {
+		// Given
+		given(itemCatalogue.findOne(eq(2020L))).willReturn(null);
+
+		// when
+		orderService.addItem(1010L, 2020L, 1);
+
+		// then exception
+	}
+
+	@Test
+	public void addItemsShouldMergeBasketIntoOrderAndSaveInOneBatch() throws Exception {
+		// Given
+		long orderId = 1010L;
+		long existingItemId = 2020L;
+		long newItemId = 2021L;
+
+		Item existingItem = item(existingItemId, "existingItem", 1.0);
+		Item newItem = item(newItemId, "newItem", 2.5);
+		LineItem existingLineItem = lineItem(3030L, existingItem, 1);
+		Order order = order(orderId, false, existingLineItem);
+
+		Map<Long, ItemView> items = new HashMap<>();
+		items.put(existingItemId, itemView(existingItemId, "existingItem", 1.0));
+		items.put(newItemId, itemView(newItemId, "newItem", 2.5));
+
+		given(orderRepository.findOne(eq(orderId))).willReturn(order);
+		given(itemCatalogue.findAll(anyCollectionOf(Long.class))).willReturn(items);
+		given(itemRepository.getOne(eq(newItemId))).willReturn(newItem);
+		given(lineItemRepository.findByOrderIdAndItemIds(eq(orderId), anyCollectionOf(Long.class)))
+				.willReturn(newArrayList(existingLineItem));
+
+		// when
+		orderService.addItems(orderId, newArrayList(new BasketItem(existingItemId, 2), new BasketItem(newItemId, 1),
+				new BasketItem(existingItemId, 1)));
+
+		// then
+		then(lineItemRepository).should().save(lineItemsCaptor.capture());
+		List<LineItem> savedLineItems = lineItemsCaptor.getValue();
+		assertThat(savedLineItems).hasSize(2);
+		assertThat(savedLineItems.get(0)).isSameAs(existingLineItem);
+		assertThat(savedLineItems.get(0).getQuantity()).isEqualTo(4);
+		assertThat(savedLineItems.get(1).getItem()).isSameAs(newItem);
+		assertThat(savedLineItems.get(1).getQuantity()).isEqualTo(1);
+		assertThat(savedLineItems.get(1).getOrder()).isSameAs(order);
+
+		then(orderRepository).should().save(orderCaptor.capture());
+		Order savedOrder = orderCaptor.getValue();
+		assertThat(savedOrder.getLineItems()).hasSize(2);
+		assertThat(savedOrder.getTotal()).isEqualTo(400L + 250L);
+
+		then(eventPublisher).should(times(2)).publishEvent(eventCaptor.capture());
+		assertThat(eventCaptor.getAllValues()).extracting("type", "itemId", "quantity", "amount").containsExactly(
+				tuple(OrderEvent.Type.ITEM_ADDED, existingItemId, 3, Money.ofMinorUnits(300L)),
+				tuple(OrderEvent.Type.ITEM_ADDED, newItemId, 1, Money.ofMinorUnits(250L)));
+	}
+
+	@Test(expected = InvalidItemException.class)
+	public void addItemsShouldFailIfAnItemDoesNotExist() throws Exception {
+		// Given
+		long orderId = 1010L;
+		given(itemCatalogue.findAll(anyCollectionOf(Long.class))).willReturn(new HashMap<>());
+
+		// when
+		orderService.addItems(orderId, newArrayList(new BasketItem(2020L, 1)));
+
+		// then exception
+	}
+
+	@Test(expected = OrderAlreadyPaidException.class)
+	public void addItemsShouldFailIfOrderIsAlreadyPaid() throws Exception {
+		// Given
+		long orderId = 1010L;
+		long itemId = 2020L;
+
+		Map<Long, ItemView> items = new HashMap<>();
+		items.put(itemId, itemView(itemId, "itemName", 10.0));
+
+		given(itemCatalogue.findAll(anyCollectionOf(Long.class))).willReturn(items);
+		given(orderRepository.findOne(eq(orderId))).willReturn(order(orderId, true));
+
+		// when
+		orderService.addItems(orderId, newArrayList(new BasketItem(itemId, 1)));
+
+		// then exception
+	}
+
+	@Test(expected = OrderNotFoundException.class)
+	public void addItemsShouldFailIfOrderDoesNotExist() throws Exception {
+		// Given
+		long orderId = 1010L;
+		long itemId = 2020L;
+
+		Map<Long, ItemView> items = new HashMap<>();
+		items.put(itemId, itemView(itemId, "itemName", 10.0));
+
+		given(itemCatalogue.findAll(anyCollectionOf(Long.class))).willReturn(items);
+		given(orderRepository.findOne(eq(orderId))).willReturn(null);
+
+		// when
+		orderService.addItems(orderId, newArrayList(new BasketItem(itemId, 1)));
+
+		// then exception
+	}
+
+	@Test(expected = InvalidItemException.class)
+	public void addItemsShouldFailIfQuantityIsNotPositive() throws Exception {
+		// when
+		orderService.addItems(1010L, newArrayList(new BasketItem(2020L, 0)));
+
+		// then exception
 	}
 
 	@Test
@@ -164,7 +367,7 @@ public class OrderServiceTest {
 		long itemId = 2020L;
 		long receiptId = 3030L;
 		long lineItemId = 3030L;
-		BigDecimal payment = BigDecimal.TEN;
+		Money payment = money(10.0);
 
 		LineItem existingLineItem = lineItem(lineItemId, item(itemId, "itemName", 9.99), 1);
 		Order existingOrder = order(orderId, false, existingLineItem);
@@ -190,6 +393,75 @@ public class OrderServiceTest {
 
 		Receipt expectedReceiptWithId = receipt(receiptId, expectedPaidOrder, payment);
 		assertThat(returnedReceipt).isEqualToComparingFieldByFieldRecursively(expectedReceiptWithId);
+
+		then(eventPublisher).should().publishEvent(eventCaptor.capture());
+		OrderEvent event = eventCaptor.getValue();
+		assertThat(event.getType()).isEqualTo(OrderEvent.Type.PAID);
+		assertThat(event.getOrderId()).isEqualTo(orderId);
+		assertThat(event.getReceiptId()).isEqualTo(receiptId);
+		assertThat(event.getTotal()).isEqualTo(money(9.99));
+	}
+
+	@Test
+	public void payWithKeyShouldRecordKeyWithReceipt() throws Exception {
+		// Given
+		long orderId = 1010L;
+		Money payment = money(10.0);
+		Order existingOrder = order(orderId, false, lineItem(303L, item(202L, "itemName", 9.99), 1));
+		given(orderRepository.findOne(eq(orderId))).willReturn(existingOrder);
+
+		Receipt receiptWithId = receipt(3030L, order(orderId, true), payment);
+		given(receiptRepository.save(any(Receipt.class))).willReturn(receiptWithId);
+
+		// when
+		orderService.pay(orderId, payment, "1010:key");
+
+		// then
+		then(idempotencyStore).should().record(eq("1010:key"), eq(receiptWithId));
+	}
+
+	@Test(expected = OrderAlreadyPaidException.class)
+	public void payShouldFailIfOrderIsAlreadyPaid() throws Exception {
+		// Given
+		long orderId = 1010L;
+		Order order = order(orderId, true, lineItem(303L, item(202L, "itemName", 4.0), 1));
+
+		given(orderRepository.findOne(eq(orderId))).willReturn(order);
+
+		// when
+		orderService.pay(orderId, money(10.0));
+
+		// then exception
+	}
+
+	@Test
+	public void payShouldFailWithoutPayingWhilePaymentEventsAreBackedUp() throws Exception {
+		// Given
+		long orderId = 1010L;
+		given(paymentEventPipeline.isBackedUp()).willReturn(true);
+
+		// when
+		Throwable thrown = catchThrowable(() -> orderService.pay(orderId, money(10.0)));
+
+		// then
+		assertThat(thrown).isInstanceOf(PaymentBacklogException.class);
+		then(orderRepository).should(never()).findOne(anyLong());
+		then(receiptRepository).should(never()).save(any(Receipt.class));
+	}
+
+	@Test(expected = InsufficientPaymentException.class)
+	public void payShouldFailIfPaymentDoesNotCoverQuantity() throws Exception {
+		// Given
+		long orderId = 1010L;
+		Order order = order(orderId, false, lineItem(303L, item(202L, "itemName", 4.0), 3));
+		Money payment = money(10.0);
+
+		given(orderRepository.findOne(eq(orderId))).willReturn(order);
+
+		// when
+		orderService.pay(orderId, payment);
+
+		// then exception
 	}
 
 	@Test(expected = InsufficientPaymentException.class)
@@ -197,7 +469,7 @@ public class OrderServiceTest {
 		// Given
 		long orderId = 1010L;
 		Order order = order(orderId, false, lineItem(303L, item(202L, "itemName", 10.01), 1));
-		BigDecimal payment = BigDecimal.TEN;
+		Money payment = money(10.0);
 
 		given(orderRepository.findOne(eq(orderId))).willReturn(order);
 
@@ -0,0 +1,55 @@
+package answer.king.service;
+
+import static answer.king.test.TestUtils.item;
+import static answer.king.test.TestUtils.lineItem;
+import static answer.king.test.TestUtils.money;
+import static answer.king.test.TestUtils.order;
+import static answer.king.test.TestUtils.receiptView;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.eq;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import answer.king.repo.ReceiptRepository;
+import answer.king.view.ReceiptView;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReceiptServiceTest {
+
+	@Mock
+	private ReceiptRepository receiptRepository;
+
+	@InjectMocks
+	private ReceiptService receiptService;
+
+	@Test
+	public void getReceiptShouldReadReceiptById() {
+		// Given
+		ReceiptView receipt = receiptView(404L, order(101L, true, lineItem(303L, item(202L, "itemName", 5.0), 1)), money(10.0));
+		given(receiptRepository.findViewById(eq(404L))).willReturn(receipt);
+
+		// when
+		ReceiptView returnedReceipt = receiptService.getReceipt(404L);
+
+		// then
+		assertThat(returnedReceipt).isSameAs(receipt);
+	}
+
+	@Test
+	public void getReceiptForOrderShouldReadReceiptByOrderId() {
+		// Given
+		ReceiptView receipt = receiptView(404L, order(101L, true, lineItem(303L, item(202L, "itemName", 5.0), 1)), money(10.0));
+		given(receiptRepository.findViewByOrderId(eq(101L))).willReturn(receipt);
+
+		// when
+		ReceiptView returnedReceipt = receiptService.getReceiptForOrder(101L);
+
+		// then
+		assertThat(returnedReceipt).isSameAs(receipt);
+	}
+}
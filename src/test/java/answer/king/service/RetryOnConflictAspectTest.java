@@ -0,0 +1,79 @@
+package answer.king.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import answer.king.model.Order;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RetryOnConflictAspectTest {
+
+	@Mock
+	private ProceedingJoinPoint joinPoint;
+
+	@InjectMocks
+	private RetryOnConflictAspect retryOnConflictAspect;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(retryOnConflictAspect, "maxAttempts", 3);
+		ReflectionTestUtils.setField(retryOnConflictAspect, "backoffMillis", 0L);
+	}
+
+	@Test
+	public void retryShouldProceedAgainAfterConflict() throws Throwable {
+		// Given
+		given(joinPoint.proceed()).willThrow(conflict()).willReturn("result");
+
+		// when
+		Object result = retryOnConflictAspect.retry(joinPoint);
+
+		// then
+		assertThat(result).isEqualTo("result");
+		then(joinPoint).should(times(2)).proceed();
+	}
+
+	@Test(expected = ObjectOptimisticLockingFailureException.class)
+	public void retryShouldGiveUpAfterMaxAttempts() throws Throwable {
+		// Given
+		given(joinPoint.proceed()).willThrow(conflict());
+
+		// when
+		retryOnConflictAspect.retry(joinPoint);
+
+		// then exception
+	}
+
+	@Test
+	public void retryShouldNotRetryOtherFailures() throws Throwable {
+		// Given
+		given(joinPoint.proceed()).willThrow(new DataIntegrityViolationException("constraint"));
+
+		// when
+		try {
+			retryOnConflictAspect.retry(joinPoint);
+		} catch (DataIntegrityViolationException e) {
+			// expected
+		}
+
+		// then
+		then(joinPoint).should(times(1)).proceed();
+	}
+
+	private static ObjectOptimisticLockingFailureException conflict() {
+		return new ObjectOptimisticLockingFailureException(Order.class, 1L);
+	}
+}
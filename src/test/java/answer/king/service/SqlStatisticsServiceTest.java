@@ -0,0 +1,67 @@
+package answer.king.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SqlStatisticsServiceTest {
+
+	@Mock
+	private EntityManagerFactory entityManagerFactory;
+
+	@Mock
+	private SessionFactory sessionFactory;
+
+	@Mock
+	private Statistics statistics;
+
+	@InjectMocks
+	private SqlStatisticsService sqlStatisticsService;
+
+	@Before
+	public void setUp() {
+		given(entityManagerFactory.unwrap(SessionFactory.class)).willReturn(sessionFactory);
+		given(sessionFactory.getStatistics()).willReturn(statistics);
+	}
+
+	@Test
+	public void getStatisticsShouldReadHibernateStatistics() {
+		// Given
+		given(statistics.isStatisticsEnabled()).willReturn(true);
+		given(statistics.getPrepareStatementCount()).willReturn(12L);
+		given(statistics.getQueryExecutionCount()).willReturn(3L);
+		given(statistics.getQueryExecutionMaxTimeQueryString()).willReturn("select o from Order o");
+		given(statistics.getEntityInsertCount()).willReturn(2L);
+
+		// when
+		SqlStatistics sqlStatistics = sqlStatisticsService.getStatistics();
+
+		// then
+		assertThat(sqlStatistics.isEnabled()).isTrue();
+		assertThat(sqlStatistics.getStatementCount()).isEqualTo(12L);
+		assertThat(sqlStatistics.getQueryCount()).isEqualTo(3L);
+		assertThat(sqlStatistics.getSlowestQuery()).isEqualTo("select o from Order o");
+		assertThat(sqlStatistics.getEntityInsertCount()).isEqualTo(2L);
+	}
+
+	@Test
+	public void resetShouldClearHibernateStatistics() {
+		// when
+		sqlStatisticsService.reset();
+
+		// then
+		then(statistics).should().clear();
+	}
+}
@@ -3,25 +3,39 @@ package answer.king.test;
 import static org.assertj.core.util.Lists.newArrayList;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 import answer.king.model.Item;
 import answer.king.model.LineItem;
+import answer.king.model.Money;
 import answer.king.model.Order;
 import answer.king.model.Receipt;
+import answer.king.model.ReceiptLine;
+import answer.king.view.ItemView;
+import answer.king.view.ReceiptView;
 
 public class TestUtils {
 
 	private TestUtils() {
 	}
 
+	public static Money money(Double amount) {
+		return Money.of(BigDecimal.valueOf(amount));
+	}
+
 	public static Item item(Long id, String name, Double price) {
 		Item item = new Item();
 		item.setId(id);
 		item.setName(name);
-		item.setPrice(price == null ? null : BigDecimal.valueOf(price));
+		item.setPrice(price == null ? null : money(price));
 		return item;
 	}
 
+	public static ItemView itemView(Long id, String name, Double price) {
+		return new ItemView(id, name, money(price));
+	}
+
 	public static LineItem lineItem(Long id, Item item, Integer quantity) {
 		LineItem lineItem = new LineItem();
 		lineItem.setId(id);
@@ -37,17 +51,40 @@ public class TestUtils {
 		order.setId(id);
 		order.setPaid(paid);
 		order.setLineItems(newArrayList(items));
+		long total = 0;
 		for (LineItem item : items) {
 			item.setOrder(order);
+			total += item.getPrice().getMinorUnits() * item.getQuantity();
 		}
+		order.setTotal(total);
 		return order;
 	}
 
-	public static Receipt receipt(Long id, Order order, BigDecimal payment) {
+	public static Receipt receipt(Long id, Order order, Money payment) {
+		Money total = Money.ofMinorUnits(order.getTotal());
+		List<ReceiptLine> lines = new ArrayList<>();
+		for (LineItem lineItem : order.getLineItems()) {
+			ReceiptLine line = new ReceiptLine();
+			line.setId(lineItem.getId());
+			line.setName(lineItem.getName());
+			line.setPrice(lineItem.getPrice());
+			line.setQuantity(lineItem.getQuantity());
+			lines.add(line);
+		}
+
 		Receipt receipt = new Receipt();
 		receipt.setId(id);
-		receipt.setOrder(order);
+		receipt.setOrderId(order.getId());
 		receipt.setPayment(payment);
+		receipt.setTotal(total);
+		receipt.setChange(payment.minus(total));
+		receipt.setLineItems(lines);
 		return receipt;
 	}
+
+	public static ReceiptView receiptView(Long id, Order order, Money payment) {
+		Receipt receipt = receipt(id, order, payment);
+		return new ReceiptView(receipt.getId(), receipt.getOrderId(), receipt.getPayment(), receipt.getTotal(),
+				receipt.getChange(), receipt.getLineItems());
+	}
 }
@@ -0,0 +1,105 @@
+package answer.king.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import answer.king.web.AdmissionControl.Priority;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+	private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+	private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+	private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 20, 250, 0.5);
+
+	@Test
+	public void tryAcquireShouldRejectLowPriorityBeforeHighPriority() {
+		// Given
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire(Priority.HIGH);
+		}
+
+		// when
+		boolean low = limiter.tryAcquire(Priority.LOW);
+		boolean high = limiter.tryAcquire(Priority.HIGH);
+
+		// then
+		assertThat(low).isFalse();
+		assertThat(high).isTrue();
+		assertThat(limiter.getInFlight()).isEqualTo(6);
+		assertThat(limiter.getRejected()).isEqualTo(1);
+	}
+
+	@Test
+	public void tryAcquireShouldRejectHighPriorityAtLimit() {
+		// Given
+		for (int i = 0; i < 10; i++) {
+			limiter.tryAcquire(Priority.HIGH);
+		}
+
+		// when
+		boolean high = limiter.tryAcquire(Priority.HIGH);
+
+		// then
+		assertThat(high).isFalse();
+	}
+
+	@Test
+	public void releaseShouldRaiseLimitWhenFastAndBusy() {
+		// Given
+		for (int i = 0; i < 5; i++) {
+			limiter.tryAcquire(Priority.HIGH);
+		}
+
+		// when
+		limiter.release(FAST, true);
+
+		// then
+		assertThat(limiter.getLimit()).isEqualTo(11);
+		assertThat(limiter.getInFlight()).isEqualTo(4);
+	}
+
+	@Test
+	public void releaseShouldNotRaiseLimitWhenIdle() {
+		// Given
+		limiter.tryAcquire(Priority.HIGH);
+
+		// when
+		limiter.release(FAST, true);
+
+		// then
+		assertThat(limiter.getLimit()).isEqualTo(10);
+	}
+
+	@Test
+	public void releaseShouldBackOffWhenSlow() {
+		// Given
+		limiter.tryAcquire(Priority.HIGH);
+
+		// when
+		limiter.release(SLOW, true);
+
+		// then
+		assertThat(limiter.getLimit()).isEqualTo(5);
+	}
+
+	@Test
+	public void releaseShouldBackOffOnFailureButNotBelowMinimum() {
+		// Given
+		limiter.tryAcquire(Priority.HIGH);
+		limiter.release(FAST, false);
+		limiter.tryAcquire(Priority.HIGH);
+		limiter.release(FAST, false);
+		limiter.tryAcquire(Priority.HIGH);
+
+		// when
+		limiter.release(FAST, false);
+
+		// then
+		assertThat(limiter.getLimit()).isEqualTo(2);
+	}
+}
@@ -0,0 +1,99 @@
+package answer.king.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import answer.king.web.AdmissionControl.Priority;
+
+public class AdmissionControlInterceptorTest {
+
+	private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(1, 1, 10, 250, 0.9);
+
+	private final AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(limiter);
+
+	@Test
+	public void preHandleShouldAdmitAndAfterCompletionShouldRelease() throws Exception {
+		// Given
+		MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/order/1/pay");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("highPriority");
+
+		// when
+		boolean admitted = interceptor.preHandle(request, response, handler);
+		int inFlight = limiter.getInFlight();
+		interceptor.afterCompletion(request, response, handler, null);
+
+		// then
+		assertThat(admitted).isTrue();
+		assertThat(inFlight).isEqualTo(1);
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void preHandleShouldFailFastWhenLimitIsReached() throws Exception {
+		// Given
+		HandlerMethod handler = handler("highPriority");
+		interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler);
+		MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/order/1/pay");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// when
+		boolean admitted = interceptor.preHandle(request, response, handler);
+
+		// then
+		assertThat(admitted).isFalse();
+		assertThat(response.getStatus()).isEqualTo(503);
+		assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+		assertThat(limiter.getInFlight()).isEqualTo(1);
+	}
+
+	@Test
+	public void preHandleShouldNotAdmitAsyncDispatchOfAdmittedRequestAgain() throws Exception {
+		// Given
+		MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/order/1/pay");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("highPriority");
+		interceptor.preHandle(request, response, handler);
+
+		// when
+		boolean admitted = interceptor.preHandle(request, response, handler);
+		int inFlight = limiter.getInFlight();
+		interceptor.afterCompletion(request, response, handler, null);
+
+		// then
+		assertThat(admitted).isTrue();
+		assertThat(inFlight).isEqualTo(1);
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+	}
+
+	@Test
+	public void preHandleShouldIgnoreHandlersWithoutAdmissionControl() throws Exception {
+		// Given
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/order");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		HandlerMethod handler = handler("uncontrolled");
+
+		// when
+		boolean admitted = interceptor.preHandle(request, response, handler);
+		interceptor.afterCompletion(request, response, handler, null);
+
+		// then
+		assertThat(admitted).isTrue();
+		assertThat(limiter.getInFlight()).isEqualTo(0);
+	}
+
+	private HandlerMethod handler(String name) throws NoSuchMethodException {
+		return new HandlerMethod(this, AdmissionControlInterceptorTest.class.getDeclaredMethod(name));
+	}
+
+	@AdmissionControl(Priority.HIGH)
+	void highPriority() {
+	}
+
+	void uncontrolled() {
+	}
+}
@@ -0,0 +1,146 @@
+package answer.king.web;
+
+import static answer.king.test.TestUtils.order;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import answer.king.model.Money;
+import answer.king.model.Order;
+import answer.king.service.IdempotentPaymentService;
+import answer.king.service.InsufficientPaymentException;
+import answer.king.service.OrderService;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = { "answer.king.async.enabled=true", "answer.king.async.max-concurrency=1",
+		"answer.king.async.queue-capacity=0" })
+@AutoConfigureMockMvc
+public class AsyncExecutionHandlerAdapterTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private OrderService orderService;
+
+	@MockBean
+	private IdempotentPaymentService idempotentPaymentService;
+
+	@Test
+	public void addItemShouldRunHandlerOnExecutorThread() throws Exception {
+		// Given
+		AtomicReference<String> handlerThread = new AtomicReference<>();
+		willAnswer(invocation -> {
+			handlerThread.set(Thread.currentThread().getName());
+			return null;
+		}).given(orderService).addItem(1L, 2L, 1);
+
+		// when
+		MvcResult result = mvc.perform(put("/order/1/addItem/2"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk());
+
+		// then
+		assertThat(handlerThread.get()).startsWith("request-");
+	}
+
+	@Test
+	public void createShouldRenderReturnedOrderOnAsyncDispatch() throws Exception {
+		// Given
+		given(orderService.save(any(Order.class))).willReturn(order(3L, false));
+
+		// when
+		MvcResult result = mvc.perform(post("/order"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(content().json("{\"id\":3,\"paid\":false}"));
+	}
+
+	@Test
+	public void payShouldRenderHandlerExceptionOnAsyncDispatch() throws Exception {
+		// Given
+		given(idempotentPaymentService.pay(eq(1L), any(Money.class), isNull(String.class)))
+				.willThrow(new InsufficientPaymentException("not enough"));
+
+		// when
+		MvcResult result = mvc.perform(put("/order/1/pay").contentType(APPLICATION_JSON).content("1.00"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().json("{\"error\":\"not enough\"}"));
+	}
+
+	@Test
+	public void addItemShouldBeTurnedAwayWhenExecutorIsFull() throws Exception {
+		// Given
+		CountDownLatch handlerStarted = new CountDownLatch(1);
+		CountDownLatch releaseHandler = new CountDownLatch(1);
+		willAnswer(invocation -> {
+			handlerStarted.countDown();
+			releaseHandler.await(5, TimeUnit.SECONDS);
+			return null;
+		}).given(orderService).addItem(1L, 2L, 1);
+		MvcResult busy = mvc.perform(put("/order/1/addItem/2"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		handlerStarted.await(5, TimeUnit.SECONDS);
+
+		// when
+		try {
+			mvc.perform(put("/order/1/addItem/3"))
+					.andExpect(request().asyncNotStarted())
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string("Retry-After", "1"))
+					.andExpect(content().json("{\"error\":\"too busy, retry shortly\"}"));
+		} finally {
+			releaseHandler.countDown();
+		}
+
+		// then
+		mvc.perform(asyncDispatch(busy))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void otherRequestsShouldRunOnContainerThread() throws Exception {
+		// when
+		mvc.perform(get("/statistics/sql"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isOk());
+	}
+}